@@ -0,0 +1,284 @@
+package com.entitycore.modules.hoppers;
+
+import com.entitycore.util.PackedPos;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Hopper;
+import org.bukkit.block.data.Directional;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight in-memory fakes of the Bukkit types the HopperFilters hot paths touch.
+ *
+ * Interfaces are faked with dynamic proxies that answer only the methods those paths
+ * call (everything else returns a zero value), so the benchmarks need no running server.
+ */
+final class BenchFakes {
+
+    private BenchFakes() {
+    }
+
+    /* ===============================================================
+       SERVER
+       =============================================================== */
+
+    private static int currentTick;
+
+    /**
+     * Install a fake server once per JVM (Bukkit.getWorld / getCurrentTick are static).
+     */
+    static synchronized void installServer(Map<UUID, World> worlds) {
+        if (Bukkit.getServer() == null) {
+            Logger logger = Logger.getLogger("bench");
+            Server server = proxy(Server.class, (p, m, a) -> switch (m.getName()) {
+                case "getLogger" -> logger;
+                case "getWorld" -> a[0] instanceof UUID id ? FakeWorlds.ALL.get(id) : null;
+                case "getCurrentTick" -> currentTick;
+                default -> zero(m);
+            });
+            Bukkit.setServer(server);
+        }
+        FakeWorlds.ALL.putAll(worlds);
+    }
+
+    static void advanceTick() {
+        currentTick++;
+    }
+
+    private static final class FakeWorlds {
+        static final Map<UUID, World> ALL = new HashMap<>();
+    }
+
+    /* ===============================================================
+       WORLD + BLOCKS
+       =============================================================== */
+
+    static final class FakeWorld {
+        final UUID id = UUID.randomUUID();
+        final World world;
+        private final Map<Long, Block> blocks = new HashMap<>();
+
+        FakeWorld() {
+            this.world = proxy(World.class, (p, m, a) -> switch (m.getName()) {
+                case "getUID" -> id;
+                case "getName" -> "bench";
+                case "getBlockAt" -> blockAt((int) a[0], (int) a[1], (int) a[2]);
+                case "hashCode" -> id.hashCode();
+                case "equals" -> p == a[0];
+                default -> zero(m);
+            });
+        }
+
+        Block blockAt(int x, int y, int z) {
+            Block b = blocks.get(PackedPos.pack(x, y, z));
+            return b != null ? b : put(x, y, z, Material.AIR, null, null);
+        }
+
+        /**
+         * Place a fake block. {@code state} may be null (plain block); {@code data} may be null.
+         */
+        Block put(int x, int y, int z, Material type, Object state, Object data) {
+            Block[] self = new Block[1];
+            self[0] = proxy(Block.class, (p, m, a) -> switch (m.getName()) {
+                case "getType" -> type;
+                case "getX" -> x;
+                case "getY" -> y;
+                case "getZ" -> z;
+                case "getWorld" -> world;
+                case "getState" -> state;
+                case "getBlockData" -> data;
+                case "getRelative" -> a.length == 1
+                        ? blockAt(x + ((BlockFace) a[0]).getModX(), y + ((BlockFace) a[0]).getModY(), z + ((BlockFace) a[0]).getModZ())
+                        : blockAt(x + (int) a[0], y + (int) a[1], z + (int) a[2]);
+                case "hashCode" -> System.identityHashCode(p);
+                case "equals" -> p == a[0];
+                default -> zero(m);
+            });
+            blocks.put(PackedPos.pack(x, y, z), self[0]);
+            return self[0];
+        }
+    }
+
+    /**
+     * A filtered-hopper cell: chest above (source), hopper facing down, chest below (destination).
+     */
+    static Block placeHopperCell(FakeWorld w, int x, int y, int z, Material sourceItem) {
+        PersistentDataContainer pdc = proxy(PersistentDataContainer.class, (p, m, a) -> zero(m));
+
+        FakeInventory hopperInv = new FakeInventory(5, false, false);
+        FakeInventory source = new FakeInventory(27, true, false);
+        FakeInventory dest = new FakeInventory(27, false, true);
+        source.fill(sourceItem);
+
+        Block[] hopperBlock = new Block[1];
+        Hopper hopperState = proxy(Hopper.class, (p, m, a) -> switch (m.getName()) {
+            case "getInventory", "getSnapshotInventory" -> hopperInv.inventory;
+            case "getPersistentDataContainer" -> pdc;
+            case "getBlock" -> hopperBlock[0];
+            case "getType" -> Material.HOPPER;
+            case "update" -> true;
+            default -> zero(m);
+        });
+        Directional facingDown = proxy(Directional.class, (p, m, a) -> switch (m.getName()) {
+            case "getFacing" -> BlockFace.DOWN;
+            default -> zero(m);
+        });
+
+        w.put(x, y + 1, z, Material.CHEST, chest(source), null);
+        w.put(x, y - 1, z, Material.CHEST, chest(dest), null);
+        hopperBlock[0] = w.put(x, y, z, Material.HOPPER, hopperState, facingDown);
+        return hopperBlock[0];
+    }
+
+    private static Chest chest(FakeInventory inv) {
+        return proxy(Chest.class, (p, m, a) -> switch (m.getName()) {
+            case "getInventory", "getBlockInventory", "getSnapshotInventory" -> inv.inventory;
+            default -> zero(m);
+        });
+    }
+
+    /* ===============================================================
+       INVENTORY + ITEMS
+       =============================================================== */
+
+    /**
+     * Array-backed inventory. A "bottomless" inventory ignores removals (steady-state source);
+     * a "sink" swallows whatever is added (steady-state destination).
+     */
+    static final class FakeInventory {
+        final Inventory inventory;
+        private final ItemStack[] slots;
+        private final boolean bottomless;
+        private final boolean sink;
+
+        FakeInventory(int size, boolean bottomless, boolean sink) {
+            this.slots = new ItemStack[size];
+            this.bottomless = bottomless;
+            this.sink = sink;
+            this.inventory = proxy(Inventory.class, (p, m, a) -> switch (m.getName()) {
+                case "getSize" -> slots.length;
+                case "getItem" -> slots[(int) a[0]];
+                case "setItem" -> {
+                    if (!this.bottomless) slots[(int) a[0]] = (ItemStack) a[1];
+                    yield null;
+                }
+                case "addItem" -> add((ItemStack[]) a[0]);
+                case "isEmpty" -> isEmpty();
+                case "getLocation" -> null;
+                default -> zero(m);
+            });
+        }
+
+        void fill(Material type) {
+            for (int i = 0; i < slots.length; i++) slots[i] = new FakeItemStack(type, 64);
+        }
+
+        private boolean isEmpty() {
+            for (ItemStack it : slots) if (it != null) return false;
+            return true;
+        }
+
+        private HashMap<Integer, ItemStack> add(ItemStack[] items) {
+            HashMap<Integer, ItemStack> leftover = new HashMap<>();
+            if (sink) return leftover;
+
+            for (int i = 0; i < items.length; i++) {
+                ItemStack in = items[i];
+                int left = in.getAmount();
+
+                for (int s = 0; s < slots.length && left > 0; s++) {
+                    ItemStack cur = slots[s];
+                    if (cur == null || cur.getType() != in.getType() || cur.getAmount() >= 64) continue;
+                    int room = Math.min(left, 64 - cur.getAmount());
+                    cur.setAmount(cur.getAmount() + room);
+                    left -= room;
+                }
+                for (int s = 0; s < slots.length && left > 0; s++) {
+                    if (slots[s] != null) continue;
+                    slots[s] = new FakeItemStack(in.getType(), left);
+                    left = 0;
+                }
+
+                if (left > 0) leftover.put(i, new FakeItemStack(in.getType(), left));
+            }
+            return leftover;
+        }
+    }
+
+    /**
+     * Plain type + amount stack; the real ItemStack delegates to server internals.
+     */
+    static final class FakeItemStack extends ItemStack {
+        private final Material type;
+        private int amount;
+
+        FakeItemStack(Material type, int amount) {
+            super();
+            this.type = type;
+            this.amount = amount;
+        }
+
+        @Override
+        public Material getType() {
+            return type;
+        }
+
+        @Override
+        public int getAmount() {
+            return amount;
+        }
+
+        @Override
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        public int getMaxStackSize() {
+            return 64;
+        }
+
+        @Override
+        public FakeItemStack clone() {
+            return new FakeItemStack(type, amount);
+        }
+    }
+
+    /* ===============================================================
+       PROXY HELPERS
+       =============================================================== */
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(BenchFakes.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object zero(Method m) {
+        Class<?> r = m.getReturnType();
+        if (!r.isPrimitive()) return null;
+        if (r == boolean.class) return false;
+        if (r == void.class) return null;
+        if (r == long.class) return 0L;
+        if (r == double.class) return 0.0;
+        if (r == float.class) return 0f;
+        if (r == char.class) return '\0';
+        if (r == byte.class) return (byte) 0;
+        if (r == short.class) return (short) 0;
+        return 0;
+    }
+}
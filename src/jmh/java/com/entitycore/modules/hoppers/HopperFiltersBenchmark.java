@@ -0,0 +1,121 @@
+package com.entitycore.modules.hoppers;
+
+import com.entitycore.util.PackedPos;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the HopperFilters hot paths: location keys, the enabled lookup,
+ * the whitelist check and one full polling pass.
+ *
+ * Run with: ./gradlew jmh
+ *
+ * Hoppers sit on a flat grid (4 blocks apart, 100 per row), each with a bottomless
+ * chest above and a sink chest below, so every pass finds work to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HopperFiltersBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int hoppers;
+
+    private HopperFilterData data;
+    private HopperFiltersListener listener;
+    private Block[] blocks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchFakes.FakeWorld world = new BenchFakes.FakeWorld();
+        BenchFakes.installServer(Map.of(world.id, world.world));
+
+        data = new HopperFilterData(null,
+                new NamespacedKey("entitycore", "hf_enabled"),
+                new NamespacedKey("entitycore", "hf_filters"));
+        listener = new HopperFiltersListener(null, data, null);
+        listener.setTickBudgetMicros(0);
+
+        List<String> filters = new ArrayList<>(Collections.nCopies(HopperFilterData.FILTER_SLOTS, ""));
+        filters.set(0, "minecraft:iron_ingot");
+        filters.set(1, "minecraft:*_ore");
+
+        blocks = new Block[hoppers];
+        for (int i = 0; i < hoppers; i++) {
+            Material item = (i & 1) == 0 ? Material.IRON_INGOT : Material.IRON_ORE;
+            Block b = BenchFakes.placeHopperCell(world, (i % 100) * 4, 64, (i / 100) * 4, item);
+            data.setFilters(b, filters);
+            data.setEnabled(b, true);
+            blocks[i] = b;
+        }
+    }
+
+    private Block next() {
+        Block b = blocks[cursor];
+        if (++cursor == blocks.length) cursor = 0;
+        return b;
+    }
+
+    /* ===============================================================
+       LOCATION KEYS
+       =============================================================== */
+
+    @Benchmark
+    public long locKeyPacked() {
+        Block b = next();
+        return PackedPos.pack(b.getX(), b.getY(), b.getZ());
+    }
+
+    /**
+     * Baseline: the string key the registry used before packed longs.
+     */
+    @Benchmark
+    public String locKeyLegacyString() {
+        Block b = next();
+        return b.getWorld().getUID() + ":" + b.getX() + ":" + b.getY() + ":" + b.getZ();
+    }
+
+    /* ===============================================================
+       LOOKUPS
+       =============================================================== */
+
+    @Benchmark
+    public boolean isEnabled() {
+        return data.isEnabled(next());
+    }
+
+    @Benchmark
+    public void allows(Blackhole bh) {
+        Block b = next();
+        bh.consume(data.allows(b, Material.IRON_INGOT));
+        bh.consume(data.allows(b, Material.DIAMOND));
+    }
+
+    /* ===============================================================
+       POLLING PASS
+       =============================================================== */
+
+    @Benchmark
+    public void tick() {
+        BenchFakes.advanceTick();
+        listener.tick();
+    }
+}
@@ -0,0 +1,62 @@
+package com.entitycore.modules.flyingallowed;
+
+import com.entitycore.util.LongHashSet;
+import com.entitycore.util.PackedPos;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world set of chunks known to lie outside every region that defines an ec-fly*
+ * flag. Players standing in them get FlyDecision.NONE without a WorldGuard query.
+ *
+ * Chunks are classified lazily against the flagged regions' chunk bounds, and a world's
+ * state is rebuilt whenever its region version (see
+ * {@link FlyingAllowedWorldGuardBridge#regionVersion}) changes, so adding, removing or
+ * redefining a flagged region invalidates it.
+ */
+public final class FlyingAllowedChunkCache {
+
+    // Known-free chunks kept per world before the set starts over
+    private static final int MAX_CHUNKS_PER_WORLD = 1 << 16;
+
+    private final Map<UUID, WorldState> worlds = new HashMap<>();
+
+    public boolean isFlyFree(World world, long regionVersion, int chunkX, int chunkZ) {
+        WorldState ws = worlds.get(world.getUID());
+        if (ws == null || ws.regionVersion != regionVersion) {
+            ws = new WorldState(regionVersion, FlyingAllowedWorldGuardBridge.flyRegionChunkBounds(world));
+            worlds.put(world.getUID(), ws);
+        }
+        if (ws.bounds == null) return false;
+
+        long key = PackedPos.chunkKey(chunkX, chunkZ);
+        if (ws.freeChunks.contains(key)) return true;
+
+        int[] b = ws.bounds;
+        for (int i = 0; i < b.length; i += 4) {
+            if (chunkX >= b[i] && chunkZ >= b[i + 1] && chunkX <= b[i + 2] && chunkZ <= b[i + 3]) return false;
+        }
+
+        if (ws.freeChunks.size() >= MAX_CHUNKS_PER_WORLD) ws.freeChunks.clear();
+        ws.freeChunks.add(key);
+        return true;
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static final class WorldState {
+        final long regionVersion;
+        final int[] bounds; // null = no chunk is known free
+        final LongHashSet freeChunks = new LongHashSet();
+
+        WorldState(long regionVersion, int[] bounds) {
+            this.regionVersion = regionVersion;
+            this.bounds = bounds;
+        }
+    }
+}
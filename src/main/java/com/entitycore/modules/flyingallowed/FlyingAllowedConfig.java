@@ -1,20 +1,26 @@
 package com.entitycore.modules.flyingallowed;
 
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
 
 public final class FlyingAllowedConfig {
 
     private final JavaPlugin plugin;
     private final File file;
+    private final File statusFile;
     private YamlConfiguration yaml;
 
     public FlyingAllowedConfig(JavaPlugin plugin) {
         this.plugin = plugin;
         this.file = new File(plugin.getDataFolder(), "flyingallowed.yml");
+        this.statusFile = new File(plugin.getDataFolder(), "flyingallowed-status.yml");
     }
 
     public void load() {
@@ -44,12 +50,40 @@ public final class FlyingAllowedConfig {
         }
     }
 
+    /**
+     * Runtime figures for admins, rewritten every safety sweep into flyingallowed-status.yml
+     * (kept apart so edits to flyingallowed.yml are never overwritten). Serialized on the
+     * main thread, written off it.
+     */
+    public void writeStatus(int buckets, double costPerBucketMicros) {
+        YamlConfiguration status = new YamlConfiguration();
+        status.options().setHeader(List.of("Written by FlyingAllowed every safety sweep; edits are overwritten."));
+        status.set("buckets", buckets);
+        status.set("cost_per_bucket_micros", Math.round(costPerBucketMicros * 10.0) / 10.0);
+        String text = status.saveToString();
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.writeString(statusFile.toPath(), text, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                plugin.getLogger().warning("[FlyingAllowed] Failed to write flyingallowed-status.yml: " + e.getMessage());
+            }
+        });
+    }
+
     private void writeDefaults() {
         yaml.set("debug", false);
 
-        // How often to re-check players (region boundaries, teleports, etc.)
+        // Players are re-checked when they move to another block, teleport or change world.
+        // This interval catches movement without move events (vehicles).
+        // Players are split into this many buckets, one checked per tick. The bucket count
+        // and measured cost per bucket are written to flyingallowed-status.yml every sweep.
         yaml.set("tick_interval_ticks", 10);
 
+        // Full re-check of every player (permission changes, other plugins toggling flight).
+        // Edits to ec-fly* regions (bounds, flags, owners, members) are picked up here too.
+        yaml.set("safety_sweep_ticks", 200);
+
         // When flight is revoked, cancel fall damage for this long
         yaml.set("fall_grace_seconds", 4);
 
@@ -65,6 +99,7 @@ public final class FlyingAllowedConfig {
     private void applyMissingDefaults() {
         if (!yaml.contains("debug")) yaml.set("debug", false);
         if (!yaml.contains("tick_interval_ticks")) yaml.set("tick_interval_ticks", 10);
+        if (!yaml.contains("safety_sweep_ticks")) yaml.set("safety_sweep_ticks", 200);
         if (!yaml.contains("fall_grace_seconds")) yaml.set("fall_grace_seconds", 4);
         if (!yaml.contains("auto_enable_flight")) yaml.set("auto_enable_flight", true);
 
@@ -75,6 +110,7 @@ public final class FlyingAllowedConfig {
 
     public boolean debug() { return yaml.getBoolean("debug", false); }
     public int tickIntervalTicks() { return Math.max(1, yaml.getInt("tick_interval_ticks", 10)); }
+    public int safetySweepTicks() { return Math.max(tickIntervalTicks(), yaml.getInt("safety_sweep_ticks", 200)); }
     public int fallGraceSeconds() { return Math.max(0, yaml.getInt("fall_grace_seconds", 4)); }
     public boolean autoEnableFlight() { return yaml.getBoolean("auto_enable_flight", true); }
 
@@ -29,6 +29,8 @@ public final class FlyingAllowedModule implements Module {
         service.start();
 
         plugin.getLogger().info("[FlyingAllowed] Enabled (tickInterval=" + config.tickIntervalTicks()
+                + ", buckets=" + service.bucketCount()
+                + ", safetySweep=" + config.safetySweepTicks()
                 + ", fallGraceSeconds=" + config.fallGraceSeconds()
                 + ", autoEnable=" + config.autoEnableFlight() + ")");
     }
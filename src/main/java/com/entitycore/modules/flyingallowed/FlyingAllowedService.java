@@ -3,11 +3,14 @@ package com.entitycore.modules.flyingallowed;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public final class FlyingAllowedService {
@@ -16,23 +19,45 @@ public final class FlyingAllowedService {
     private final FlyingAllowedConfig config;
 
     private int taskId = -1;
+    private long ticks;
 
-    // fall grace expiry (millis)
-    private final Map<UUID, Long> noFallUntil = new HashMap<>();
+    // Players hashed into tick_interval_ticks buckets; one bucket is evaluated per tick
+    private Set<Player>[] buckets;
+    private long[] bucketNanos; // moving average cost per bucket
 
-    // message throttle (millis)
-    private final Map<UUID, Long> msgCooldownUntil = new HashMap<>();
+    // Last evaluated key per player: a player is only re-queried when it changes
+    private final Map<UUID, Evaluated> evaluated = new HashMap<>();
 
-    private static final long MSG_COOLDOWN_MS = 1500;
+    // Fly region fingerprint per world (part of the key, refreshed every safety sweep)
+    private final Map<UUID, Long> regionVersions = new HashMap<>();
+
+    // Chunks outside every ec-fly* region: no WorldGuard query needed there
+    private final FlyingAllowedChunkCache chunkCache = new FlyingAllowedChunkCache();
+
+    // fall grace expiry (server ticks, expired entries evicted every tick)
+    private final FlyingAllowedTimerWheel noFallUntil = new FlyingAllowedTimerWheel();
+
+    // message throttle (server ticks)
+    private final FlyingAllowedTimerWheel msgCooldownUntil = new FlyingAllowedTimerWheel();
+
+    private static final long MSG_COOLDOWN_TICKS = 30; // 1.5s
 
     public FlyingAllowedService(JavaPlugin plugin, FlyingAllowedConfig config) {
         this.plugin = plugin;
         this.config = config;
     }
 
+    @SuppressWarnings("unchecked")
     public void start() {
         stop();
-        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::tick, 1L, config.tickIntervalTicks());
+
+        int n = config.tickIntervalTicks();
+        buckets = new Set[n];
+        for (int i = 0; i < n; i++) buckets[i] = new LinkedHashSet<>();
+        bucketNanos = new long[n];
+        for (Player p : Bukkit.getOnlinePlayers()) track(p);
+
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::tick, 1L, 1L);
     }
 
     public void stop() {
@@ -40,69 +65,187 @@ public final class FlyingAllowedService {
             Bukkit.getScheduler().cancelTask(taskId);
             taskId = -1;
         }
+        ticks = 0;
+        if (buckets != null) {
+            for (Set<Player> bucket : buckets) bucket.clear();
+        }
+        evaluated.clear();
+        regionVersions.clear();
+        chunkCache.clear();
         noFallUntil.clear();
         msgCooldownUntil.clear();
     }
 
+    public int bucketCount() {
+        return buckets == null ? 0 : buckets.length;
+    }
+
+    /**
+     * Measured cost of evaluating one bucket (moving average over all buckets), in microseconds.
+     */
+    public double bucketCostMicros() {
+        if (bucketNanos == null || bucketNanos.length == 0) return 0.0;
+        long total = 0;
+        for (long nanos : bucketNanos) total += nanos;
+        return total / (double) bucketNanos.length / 1000.0;
+    }
+
     public boolean isInFallGraceWindow(Player p) {
-        Long until = noFallUntil.get(p.getUniqueId());
-        return until != null && until >= System.currentTimeMillis();
+        return noFallUntil.isActive(p.getUniqueId(), Bukkit.getCurrentTick());
+    }
+
+    /* ===============================================================
+       TRIGGERS (listener)
+       =============================================================== */
+
+    /**
+     * Player is (about to be) at {@code to}: re-evaluate if that is a new block.
+     */
+    public void onMoved(Player p, Location to) {
+        evaluate(p, to, false);
     }
 
+    /**
+     * Something outside the key changed (game mode, join): evaluate next tick, once the
+     * change is applied.
+     */
+    public void recheckNextTick(Player p) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (p.isOnline()) evaluate(p, p.getLocation(), true);
+        });
+    }
+
+    public void track(Player p) {
+        if (buckets != null) buckets[bucketOf(p)].add(p);
+    }
+
+    public void forget(Player p) {
+        evaluated.remove(p.getUniqueId());
+        if (buckets != null) buckets[bucketOf(p)].remove(p);
+    }
+
+    private int bucketOf(Player p) {
+        return Math.floorMod(p.getUniqueId().hashCode(), buckets.length);
+    }
+
+    /* ===============================================================
+       TICK
+       =============================================================== */
+
     private void tick() {
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            if (!p.isOnline()) continue;
+        long now = Bukkit.getCurrentTick();
+        noFallUntil.advance(now);
+        msgCooldownUntil.advance(now);
 
-            // Never interfere with Creative/Spectator
-            if (p.getGameMode() == GameMode.CREATIVE || p.getGameMode() == GameMode.SPECTATOR) continue;
+        int n = buckets.length;
+        int b = (int) (ticks % n);
+        long cycle = ticks / n;
+        ticks++;
 
-            // Bypass (Operator-only)
-            if (p.hasPermission("entitycore.flyingallowed.bypass")) continue;
+        // Safety sweep: permissions or another plugin's flight changes are not part of the key
+        boolean sweep = cycle % Math.max(1, config.safetySweepTicks() / n) == 0;
 
-            Location loc = p.getLocation();
+        // Once per sweep: fly region edits show up as a new fingerprint, which invalidates
+        // that world's keys. Walking the regions costs more than a key check, so this runs
+        // on the sweep cadence rather than every cycle.
+        if (sweep && b == 0) refreshRegionVersions();
 
-            FlyingAllowedWorldGuardBridge.FlyDecision decision = FlyingAllowedWorldGuardBridge.queryDecision(p, loc);
+        long start = System.nanoTime();
+        for (Player p : buckets[b]) {
+            if (!p.isOnline()) continue;
 
-            if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.NONE) {
-                // Not in a controlled region -> do not grant flight.
-                // If they are currently flying due to our module, we revoke it.
-                // (If another plugin manages flight, they can re-enable afterwards.)
-                if (p.getAllowFlight() || p.isFlying()) {
-                    revoke(p, null, null);
-                }
-                continue;
+            // Catches movement without a move event (vehicles, pistons)
+            evaluate(p, p.getLocation(), sweep);
+        }
+        bucketNanos[b] = (bucketNanos[b] * 7 + (System.nanoTime() - start)) / 8;
+
+        if (sweep && b == n - 1) {
+            config.writeStatus(n, bucketCostMicros());
+            if (config.debug()) {
+                plugin.getLogger().info("[FlyingAllowed][DEBUG] buckets=" + n
+                        + ", cost per bucket=" + String.format(java.util.Locale.ROOT, "%.1f", bucketCostMicros()) + "us");
             }
+        }
+    }
+
+    private void refreshRegionVersions() {
+        regionVersions.clear();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            World w = p.getWorld();
+            if (!regionVersions.containsKey(w.getUID())) {
+                regionVersions.put(w.getUID(), FlyingAllowedWorldGuardBridge.regionVersion(w));
+            }
+        }
+    }
+
+    private void evaluate(Player p, Location loc, boolean force) {
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        // Same key as last time: nothing to do (runs on every block a player moves)
+        long version = regionVersions.computeIfAbsent(world.getUID(), id -> FlyingAllowedWorldGuardBridge.regionVersion(world));
+        Evaluated last = evaluated.get(p.getUniqueId());
+        if (!force && last != null && last.matches(world.getUID(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), version)) {
+            return;
+        }
+        evaluated.put(p.getUniqueId(), new Evaluated(world.getUID(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), version));
+
+        // Never interfere with Creative/Spectator. Checked on a key miss or a forced pass
+        // only: game mode changes re-check next tick, permission changes wait for the sweep
+        if (p.getGameMode() == GameMode.CREATIVE || p.getGameMode() == GameMode.SPECTATOR) return;
+
+        // Bypass (Operator-only)
+        if (p.hasPermission("entitycore.flyingallowed.bypass")) return;
 
-            if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.DENY) {
-                revoke(p, FlyingAllowedWorldGuardBridge.queryMessage(p, loc), config.msgDenied());
-                continue;
+        if (chunkCache.isFlyFree(world, version, loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
+            apply(p, FlyingAllowedWorldGuardBridge.RegionFlags.NONE);
+        } else {
+            apply(p, FlyingAllowedWorldGuardBridge.query(p, loc));
+        }
+    }
+
+    private void apply(Player p, FlyingAllowedWorldGuardBridge.RegionFlags flags) {
+        FlyingAllowedWorldGuardBridge.FlyDecision decision = flags.decision();
+
+        if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.NONE) {
+            // Not in a controlled region -> do not grant flight.
+            // If they are currently flying due to our module, we revoke it.
+            // (If another plugin manages flight, they can re-enable afterwards.)
+            if (p.getAllowFlight() || p.isFlying()) {
+                revoke(p, null, null);
             }
+            return;
+        }
+
+        if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.DENY) {
+            revoke(p, flags.message(), config.msgDenied());
+            return;
+        }
 
-            // ALLOW variants
-            if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_BASIC) {
-                if (p.hasPermission("entitycore.fly")) {
-                    grant(p);
-                } else {
-                    revoke(p, FlyingAllowedWorldGuardBridge.queryMessage(p, loc), config.msgDenied());
-                }
-                continue;
+        // ALLOW variants
+        if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_BASIC) {
+            if (p.hasPermission("entitycore.fly")) {
+                grant(p);
+            } else {
+                revoke(p, flags.message(), config.msgDenied());
             }
+            return;
+        }
 
-            if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_VIP) {
-                if (p.hasPermission("entitycore.fly.vip") || p.hasPermission("entitycore.fly.admin")) {
-                    grant(p);
-                } else {
-                    revoke(p, FlyingAllowedWorldGuardBridge.queryMessage(p, loc), config.msgDeniedVip());
-                }
-                continue;
+        if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_VIP) {
+            if (p.hasPermission("entitycore.fly.vip") || p.hasPermission("entitycore.fly.admin")) {
+                grant(p);
+            } else {
+                revoke(p, flags.message(), config.msgDeniedVip());
             }
+            return;
+        }
 
-            if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_ADMIN) {
-                if (p.hasPermission("entitycore.fly.admin")) {
-                    grant(p);
-                } else {
-                    revoke(p, FlyingAllowedWorldGuardBridge.queryMessage(p, loc), config.msgDeniedAdmin());
-                }
+        if (decision == FlyingAllowedWorldGuardBridge.FlyDecision.ALLOW_ADMIN) {
+            if (p.hasPermission("entitycore.fly.admin")) {
+                grant(p);
+            } else {
+                revoke(p, flags.message(), config.msgDeniedAdmin());
             }
         }
     }
@@ -117,9 +260,12 @@ public final class FlyingAllowedService {
     }
 
     private void revoke(Player p, String regionMsg, String fallbackMsg) {
+        long now = Bukkit.getCurrentTick();
+
         if (p.isFlying()) {
             p.setFlying(false);
-            long until = System.currentTimeMillis() + (config.fallGraceSeconds() * 1000L);
+            // Inclusive of the last tick, as the old millisecond window was
+            long until = now + (config.fallGraceSeconds() * 20L) + 1;
             if (config.fallGraceSeconds() > 0) {
                 noFallUntil.put(p.getUniqueId(), until);
             }
@@ -131,12 +277,17 @@ public final class FlyingAllowedService {
 
         // throttle messages
         if (fallbackMsg != null) {
-            long now = System.currentTimeMillis();
-            long cd = msgCooldownUntil.getOrDefault(p.getUniqueId(), 0L);
-            if (now >= cd) {
-                msgCooldownUntil.put(p.getUniqueId(), now + MSG_COOLDOWN_MS);
+            if (!msgCooldownUntil.isActive(p.getUniqueId(), now)) {
+                msgCooldownUntil.put(p.getUniqueId(), now + MSG_COOLDOWN_TICKS);
                 p.sendMessage(regionMsg != null && !regionMsg.isBlank() ? regionMsg : fallbackMsg);
             }
         }
     }
+
+    private record Evaluated(UUID worldId, int x, int y, int z, long regionVersion) {
+        boolean matches(UUID worldId, int x, int y, int z, long regionVersion) {
+            return this.x == x && this.y == y && this.z == z
+                    && this.regionVersion == regionVersion && this.worldId.equals(worldId);
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package com.entitycore.modules.flyingallowed;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player deadlines in server ticks that forget themselves once expired.
+ *
+ * Hashed timer wheel: every entry also sits in the slot of its deadline tick, and
+ * {@link #advance(long)} walks one slot per tick, dropping what expired there. Deadlines
+ * further out than the wheel's span simply wait for a later round. Lookups never scan.
+ */
+public final class FlyingAllowedTimerWheel {
+
+    private static final int SLOTS = 256; // power of two
+    private static final int MASK = SLOTS - 1;
+
+    private record Entry(UUID id, long deadline) {
+    }
+
+    private final Map<UUID, Long> deadlines = new HashMap<>();
+    private final List<Entry>[] slots;
+    private long cursor = -1; // next tick to sweep (-1 = not started)
+
+    @SuppressWarnings("unchecked")
+    public FlyingAllowedTimerWheel() {
+        slots = new List[SLOTS];
+        for (int i = 0; i < SLOTS; i++) slots[i] = new ArrayList<>();
+    }
+
+    /**
+     * Active from now until {@code deadlineTick} (exclusive). Replaces an earlier deadline.
+     */
+    public void put(UUID id, long deadlineTick) {
+        deadlines.put(id, deadlineTick);
+        slots[(int) (deadlineTick & MASK)].add(new Entry(id, deadlineTick));
+    }
+
+    public boolean isActive(UUID id, long nowTick) {
+        Long deadline = deadlines.get(id);
+        return deadline != null && deadline > nowTick;
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Drop everything that expired up to and including {@code nowTick}.
+     */
+    public void advance(long nowTick) {
+        if (cursor < 0 || nowTick - cursor >= SLOTS) {
+            // First call or a long gap: one pass over every slot catches up
+            for (List<Entry> slot : slots) expire(slot, nowTick);
+            cursor = nowTick + 1;
+            return;
+        }
+
+        while (cursor <= nowTick) {
+            expire(slots[(int) (cursor & MASK)], cursor);
+            cursor++;
+        }
+    }
+
+    private void expire(List<Entry> slot, long nowTick) {
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Entry e = slot.get(i);
+            if (e.deadline() > nowTick) continue; // a later round
+
+            // Swap-remove; only forget the player if this is still their deadline
+            Entry last = slot.remove(slot.size() - 1);
+            if (i < slot.size()) slot.set(i, last);
+            deadlines.remove(e.id(), e.deadline());
+        }
+    }
+
+    public void clear() {
+        deadlines.clear();
+        for (List<Entry> slot : slots) slot.clear();
+        cursor = -1;
+    }
+}
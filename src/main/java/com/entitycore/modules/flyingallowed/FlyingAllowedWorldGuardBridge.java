@@ -1,10 +1,19 @@
 package com.entitycore.modules.flyingallowed;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * WorldGuard integration via reflection so we don't need WG as a compile dependency.
@@ -92,96 +101,274 @@ public final class FlyingAllowedWorldGuardBridge {
         }
     }
 
-    public static FlyDecision queryDecision(Player player, Location loc) {
-        if (!available || player == null || loc == null) return FlyDecision.NONE;
+    /**
+     * Everything FlyingAllowed reads from the regions at one location.
+     * {@code message} is the ec-fly-message value (null if unset).
+     */
+    public record RegionFlags(FlyDecision decision, String message) {
+        static final RegionFlags NONE = new RegionFlags(FlyDecision.NONE, null);
+    }
+
+    /**
+     * One wrapped player, one region set, all four flags.
+     */
+    public static RegionFlags query(Player player, Location loc) {
+        if (!available || player == null || loc == null) return RegionFlags.NONE;
+        if (!resolveHandles()) return RegionFlags.NONE;
 
         try {
-            Object set = createApplicableRegionSet(player, loc);
-            if (set == null) return FlyDecision.NONE;
+            Object localPlayer = (Object) wrapPlayer.invokeExact(wgPlugin, player);
+            Object weLoc = (Object) adaptLocation.invokeExact(loc);
+            Object set = (Object) getApplicableRegions.invokeExact(regionQuery, weLoc);
+            if (set == null) return RegionFlags.NONE;
+
+            String flyMode = (String) (Object) queryValue.invokeExact(set, localPlayer, stringFlagFly);
+            String message = (String) (Object) queryValue.invokeExact(set, localPlayer, stringFlagMsg);
+            Boolean reqAdmin = (Boolean) (Object) queryValue.invokeExact(set, localPlayer, boolFlagAdmin);
+            Boolean reqVip = (Boolean) (Object) queryValue.invokeExact(set, localPlayer, boolFlagVip);
+
+            return new RegionFlags(decide(flyMode, reqAdmin, reqVip), message);
+
+        } catch (Throwable ignored) {
+            return RegionFlags.NONE;
+        }
+    }
 
-            String flyMode = (String) queryValue(set, player, loc, stringFlagFly);
-            if (flyMode == null) return FlyDecision.NONE;
+    private static FlyDecision decide(String flyMode, Boolean reqAdmin, Boolean reqVip) {
+        if (flyMode == null) return FlyDecision.NONE;
 
-            String m = flyMode.trim().toLowerCase(java.util.Locale.ROOT);
-            if (m.equals("deny")) return FlyDecision.DENY;
-            if (m.equals("default")) return FlyDecision.NONE;
-            if (!m.equals("allow")) return FlyDecision.NONE;
+        String m = flyMode.trim().toLowerCase(java.util.Locale.ROOT);
+        if (m.equals("deny")) return FlyDecision.DENY;
+        if (!m.equals("allow")) return FlyDecision.NONE; // "default" or unknown
 
-            Boolean reqAdmin = (Boolean) queryValue(set, player, loc, boolFlagAdmin);
-            Boolean reqVip = (Boolean) queryValue(set, player, loc, boolFlagVip);
+        if (Boolean.TRUE.equals(reqAdmin)) return FlyDecision.ALLOW_ADMIN;
+        if (Boolean.TRUE.equals(reqVip)) return FlyDecision.ALLOW_VIP;
+        return FlyDecision.ALLOW_BASIC;
+    }
+
+    /**
+     * Fingerprint of the regions in {@code world} that define an ec-fly* flag themselves
+     * or through a parent (ids, priorities, bounds, flags, parents, owners, members).
+     * Other regions cannot change a fly decision and are skipped. Changes whenever such a
+     * region is added, removed, redefined, re-flagged or gets other owners/members, so
+     * cached decisions can be keyed on it. WorldGuard keeps no version counter, so this
+     * walks the world's regions: call it on a slow cadence, not per player.
+     */
+    public static long regionVersion(World world) {
+        if (!available || world == null) return 0L;
+        if (!resolveHandles()) return 0L;
+
+        try {
+            Object manager = regionManager(world);
+            if (manager == null) return 0L;
 
-            if (Boolean.TRUE.equals(reqAdmin)) return FlyDecision.ALLOW_ADMIN;
-            if (Boolean.TRUE.equals(reqVip)) return FlyDecision.ALLOW_VIP;
-            return FlyDecision.ALLOW_BASIC;
+            Map<?, ?> regions = (Map<?, ?>) (Object) getRegions.invokeExact(manager);
+            long version = 0;
+            for (Object region : regions.values()) {
+                if (!definesFlyFlag(region)) continue;
+
+                // Order-independent sum of well mixed per-region hashes
+                version += mix(regionHash(region));
+            }
+            return version;
 
         } catch (Throwable ignored) {
-            return FlyDecision.NONE;
+            return 0L;
         }
     }
 
-    public static String queryMessage(Player player, Location loc) {
-        if (!available || player == null || loc == null) return null;
+    /**
+     * Chunk-aligned bounds (minChunkX, minChunkZ, maxChunkX, maxChunkZ per region) of every
+     * region in {@code world} that defines an ec-fly* flag itself or through a parent.
+     * Null if flagged regions may cover any chunk (flagged __global__ region) or the
+     * regions cannot be read.
+     */
+    public static int[] flyRegionChunkBounds(World world) {
+        if (!available || world == null) return null;
+        if (!resolveHandles()) return null;
+
         try {
-            Object set = createApplicableRegionSet(player, loc);
-            if (set == null) return null;
-            return (String) queryValue(set, player, loc, stringFlagMsg);
+            Object manager = regionManager(world);
+            if (manager == null) return new int[0]; // regions disabled in this world
+
+            Map<?, ?> regions = (Map<?, ?>) (Object) getRegions.invokeExact(manager);
+            int[] out = new int[regions.size() * 4];
+            int n = 0;
+            for (Object region : regions.values()) {
+                if (!definesFlyFlag(region)) continue;
+                if (globalRegionClass.isInstance(region)) return null;
+
+                Object min = (Object) getMinimumPoint.invokeExact(region);
+                Object max = (Object) getMaximumPoint.invokeExact(region);
+                out[n++] = (int) getBlockX.invokeExact(min) >> 4;
+                out[n++] = (int) getBlockZ.invokeExact(min) >> 4;
+                out[n++] = (int) getBlockX.invokeExact(max) >> 4;
+                out[n++] = (int) getBlockZ.invokeExact(max) >> 4;
+            }
+            return Arrays.copyOf(out, n);
+
         } catch (Throwable ignored) {
             return null;
         }
     }
 
-    private static Object createApplicableRegionSet(Player player, Location loc) throws Throwable {
-        // WorldGuardPlugin.inst().wrapPlayer(player)
-        Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
-        Method inst = wgPluginClass.getMethod("inst");
-        Object wgPlugin = inst.invoke(null);
-        Method wrapPlayer = wgPluginClass.getMethod("wrapPlayer", Player.class);
-        Object localPlayer = wrapPlayer.invoke(wgPlugin, player);
-
-        // BukkitAdapter.adapt(world)
-        Class<?> bukkitAdapter = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
-        Method adaptWorld = bukkitAdapter.getMethod("adapt", org.bukkit.World.class);
-        Object weWorld = adaptWorld.invoke(null, loc.getWorld());
-
-        // BukkitAdapter.adapt(location) -> com.sk89q.worldedit.util.Location
-        Method adaptLoc = bukkitAdapter.getMethod("adapt", Location.class);
-        Object weLoc = adaptLoc.invoke(null, loc);
-
-        // WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery()
-        Method getPlatform = wgInstance.getClass().getMethod("getPlatform");
-        Object platform = getPlatform.invoke(wgInstance);
-
-        Method getRegionContainer = platform.getClass().getMethod("getRegionContainer");
-        Object regionContainer = getRegionContainer.invoke(platform);
-
-        Method createQuery = regionContainer.getClass().getMethod("createQuery");
-        Object query = createQuery.invoke(regionContainer);
-
-        // query.getApplicableRegions(weLoc) or query.getApplicableRegions(world, vector)
-        // We'll use: query.getApplicableRegions(weLoc)
-        Method getApplicableRegions = query.getClass().getMethod("getApplicableRegions", weLoc.getClass());
-        Object applicableRegionSet = getApplicableRegions.invoke(query, weLoc);
-
-        // Store localPlayer + set via return value; queryValue() will wrap player again
-        // We'll just return applicableRegionSet (it already captures loc), and queryValue will use localPlayer.
-        // But queryValue needs localPlayer; we'll recreate it there each time (cheap enough at our tick rate).
-        return applicableRegionSet;
+    private static boolean definesFlyFlag(Object region) throws Throwable {
+        // Flags are inherited from parents; WorldGuard rejects cycles, the depth cap is a guard
+        for (int depth = 0; region != null && depth < 16; depth++) {
+            Map<?, ?> flags = (Map<?, ?>) (Object) getFlags.invokeExact(region);
+            for (Object flag : flags.keySet()) {
+                if (((String) (Object) getFlagName.invokeExact(flag)).startsWith(FLAG_FLY)) return true;
+            }
+            region = (Object) getParent.invokeExact(region);
+        }
+        return false;
+    }
+
+    private static Object regionManager(World world) throws Throwable {
+        Object weWorld = (Object) adaptWorld.invokeExact(world);
+        return (Object) containerGet.invokeExact(regionContainer, weWorld);
+    }
+
+    private static long regionHash(Object region) throws Throwable {
+        Object parent = (Object) getParent.invokeExact(region);
+
+        long h = ((String) (Object) getId.invokeExact(region)).hashCode();
+        h = h * 31 + (int) getPriority.invokeExact(region);
+        h = h * 31 + ((Object) getMinimumPoint.invokeExact(region)).hashCode();
+        h = h * 31 + ((Object) getMaximumPoint.invokeExact(region)).hashCode();
+        h = h * 31 + ((Object) getPoints.invokeExact(region)).hashCode();
+        h = h * 31 + ((Object) getFlags.invokeExact(region)).hashCode();
+        h = h * 31 + (parent == null ? 0 : ((String) (Object) getId.invokeExact(parent)).hashCode());
+        // Region group flags (ec-fly-group) resolve against owners and members
+        h = h * 31 + domainHash((Object) getOwners.invokeExact(region));
+        h = h * 31 + domainHash((Object) getMembers.invokeExact(region));
+        return h;
+    }
+
+    private static long domainHash(Object domain) throws Throwable {
+        if (domain == null) return 0L;
+        long h = ((Object) getDomainIds.invokeExact(domain)).hashCode();
+        h = h * 31 + ((Object) getDomainNames.invokeExact(domain)).hashCode();
+        h = h * 31 + ((Object) getDomainGroups.invokeExact(domain)).hashCode();
+        return h;
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
     }
 
-    private static Object queryValue(Object applicableSet, Player player, Location loc, Object flag) throws Throwable {
-        // Re-wrap LocalPlayer each call (safe)
-        Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
-        Method inst = wgPluginClass.getMethod("inst");
-        Object wgPlugin = inst.invoke(null);
-        Method wrapPlayer = wgPluginClass.getMethod("wrapPlayer", Player.class);
-        Object localPlayer = wrapPlayer.invoke(wgPlugin, player);
-
-        // ApplicableRegionSet has queryValue(LocalPlayer, Flag)
-        Method queryValue = applicableSet.getClass().getMethod(
-                "queryValue",
-                localPlayer.getClass(),
-                Class.forName("com.sk89q.worldguard.protection.flags.Flag")
-        );
-        return queryValue.invoke(applicableSet, localPlayer, flag);
+    /* ===============================================================
+       HANDLES (resolved once, after WorldGuard enabled)
+       =============================================================== */
+
+    // Erased to Object so calls can use invokeExact
+    private static MethodHandle wrapPlayer;            // (WorldGuardPlugin, Player) -> LocalPlayer
+    private static MethodHandle adaptLocation;         // (Location) -> WE Location
+    private static MethodHandle getApplicableRegions; // (RegionQuery, WE Location) -> ApplicableRegionSet
+    private static MethodHandle queryValue;            // (ApplicableRegionSet, RegionAssociable, Flag) -> value
+
+    private static MethodHandle adaptWorld;             // (World) -> WE World
+    private static MethodHandle containerGet;           // (RegionContainer, WE World) -> RegionManager
+    private static MethodHandle getRegions;             // (RegionManager) -> Map<String, ProtectedRegion>
+    private static MethodHandle getId;                  // ProtectedRegion getters
+    private static MethodHandle getPriority;
+    private static MethodHandle getMinimumPoint;
+    private static MethodHandle getMaximumPoint;
+    private static MethodHandle getPoints;
+    private static MethodHandle getFlags;
+    private static MethodHandle getParent;
+    private static MethodHandle getOwners;              // (ProtectedRegion) -> DefaultDomain
+    private static MethodHandle getMembers;
+    private static MethodHandle getDomainIds;           // (DefaultDomain) -> Set<UUID>
+    private static MethodHandle getDomainNames;         // (DefaultDomain) -> Set<String>, legacy name entries
+    private static MethodHandle getDomainGroups;        // (DefaultDomain) -> Set<String>
+    private static MethodHandle getFlagName;            // (Flag) -> String
+    private static MethodHandle getBlockX;              // (BlockVector3) -> int
+    private static MethodHandle getBlockZ;
+
+    private static Class<?> globalRegionClass;
+
+    private static Object wgPlugin;     // WorldGuardPlugin.inst()
+    private static Object regionContainer; // WorldGuard.getInstance().getPlatform().getRegionContainer()
+    private static Object regionQuery;     // regionContainer.createQuery()
+
+    private static boolean resolveTried = false;
+    private static boolean resolved = false;
+
+    private static boolean resolveHandles() {
+        if (resolveTried) return resolved;
+        resolveTried = true;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
+            Class<?> localPlayerClass = Class.forName("com.sk89q.worldguard.LocalPlayer");
+            Class<?> bukkitAdapter = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
+            Class<?> weLocationClass = Class.forName("com.sk89q.worldedit.util.Location");
+            Class<?> regionQueryClass = Class.forName("com.sk89q.worldguard.protection.regions.RegionQuery");
+            Class<?> setClass = Class.forName("com.sk89q.worldguard.protection.ApplicableRegionSet");
+            Class<?> associableClass = Class.forName("com.sk89q.worldguard.protection.association.RegionAssociable");
+            Class<?> flagClass = Class.forName("com.sk89q.worldguard.protection.flags.Flag");
+            Class<?> weWorldClass = Class.forName("com.sk89q.worldedit.world.World");
+            Class<?> containerClass = Class.forName("com.sk89q.worldguard.protection.regions.RegionContainer");
+            Class<?> managerClass = Class.forName("com.sk89q.worldguard.protection.managers.RegionManager");
+            Class<?> regionClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedRegion");
+            Class<?> vector3Class = Class.forName("com.sk89q.worldedit.math.BlockVector3");
+            Class<?> domainClass = Class.forName("com.sk89q.worldguard.domains.DefaultDomain");
+
+            wrapPlayer = lookup.findVirtual(wgPluginClass, "wrapPlayer", MethodType.methodType(localPlayerClass, Player.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Player.class));
+            adaptLocation = lookup.findStatic(bukkitAdapter, "adapt", MethodType.methodType(weLocationClass, Location.class))
+                    .asType(MethodType.methodType(Object.class, Location.class));
+            getApplicableRegions = lookup.findVirtual(regionQueryClass, "getApplicableRegions", MethodType.methodType(setClass, weLocationClass))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            queryValue = lookup.findVirtual(setClass, "queryValue", MethodType.methodType(Object.class, associableClass, flagClass))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+
+            adaptWorld = lookup.findStatic(bukkitAdapter, "adapt", MethodType.methodType(weWorldClass, World.class))
+                    .asType(MethodType.methodType(Object.class, World.class));
+            containerGet = lookup.findVirtual(containerClass, "get", MethodType.methodType(managerClass, weWorldClass))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            getRegions = lookup.findVirtual(managerClass, "getRegions", MethodType.methodType(Map.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+            MethodType toObject = MethodType.methodType(Object.class, Object.class);
+            getId = lookup.findVirtual(regionClass, "getId", MethodType.methodType(String.class)).asType(toObject);
+            getPriority = lookup.findVirtual(regionClass, "getPriority", MethodType.methodType(int.class))
+                    .asType(MethodType.methodType(int.class, Object.class));
+            getMinimumPoint = lookup.findVirtual(regionClass, "getMinimumPoint", MethodType.methodType(vector3Class)).asType(toObject);
+            getMaximumPoint = lookup.findVirtual(regionClass, "getMaximumPoint", MethodType.methodType(vector3Class)).asType(toObject);
+            getPoints = lookup.findVirtual(regionClass, "getPoints", MethodType.methodType(List.class)).asType(toObject);
+            getFlags = lookup.findVirtual(regionClass, "getFlags", MethodType.methodType(Map.class)).asType(toObject);
+            getParent = lookup.findVirtual(regionClass, "getParent", MethodType.methodType(regionClass)).asType(toObject);
+            getOwners = lookup.findVirtual(regionClass, "getOwners", MethodType.methodType(domainClass)).asType(toObject);
+            getMembers = lookup.findVirtual(regionClass, "getMembers", MethodType.methodType(domainClass)).asType(toObject);
+            getDomainIds = lookup.findVirtual(domainClass, "getUniqueIds", MethodType.methodType(Set.class)).asType(toObject);
+            getDomainNames = lookup.findVirtual(domainClass, "getPlayers", MethodType.methodType(Set.class)).asType(toObject);
+            getDomainGroups = lookup.findVirtual(domainClass, "getGroups", MethodType.methodType(Set.class)).asType(toObject);
+            getFlagName = lookup.findVirtual(flagClass, "getName", MethodType.methodType(String.class)).asType(toObject);
+
+            MethodType toInt = MethodType.methodType(int.class, Object.class);
+            getBlockX = lookup.findVirtual(vector3Class, "getBlockX", MethodType.methodType(int.class)).asType(toInt);
+            getBlockZ = lookup.findVirtual(vector3Class, "getBlockZ", MethodType.methodType(int.class)).asType(toInt);
+
+            globalRegionClass = Class.forName("com.sk89q.worldguard.protection.regions.GlobalProtectedRegion");
+
+            wgPlugin = wgPluginClass.getMethod("inst").invoke(null);
+
+            Object platform = wgInstance.getClass().getMethod("getPlatform").invoke(wgInstance);
+            regionContainer = platform.getClass().getMethod("getRegionContainer").invoke(platform);
+            regionQuery = regionContainer.getClass().getMethod("createQuery").invoke(regionContainer);
+
+            resolved = true;
+            return true;
+
+        } catch (Throwable t) {
+            resolved = false;
+            Bukkit.getLogger().warning("[FlyingAllowed] Failed to resolve WorldGuard query methods. WG flight control will be disabled.");
+            return false;
+        }
     }
 }
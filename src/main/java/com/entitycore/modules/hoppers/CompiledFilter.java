@@ -0,0 +1,155 @@
+package com.entitycore.modules.hoppers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A hopper whitelist compiled to a Material-ordinal bitset.
+ *
+ * Filter entries:
+ * - "minecraft:dirt"      exact material
+ * - "#minecraft:logs"     item tag
+ * - "minecraft:*_ore"     wildcard over material keys ('*' = any run of characters)
+ *
+ * Tags and wildcards are expanded once at compile time, so a check is a single bit lookup.
+ * Compiled filters are shared by every hopper with the same entries (order and blanks
+ * ignored); the cache is cleared when a datapack reload can change tags.
+ */
+final class CompiledFilter {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    static final CompiledFilter EMPTY = new CompiledFilter(new long[(MATERIALS.length + 63) >>> 6]);
+
+    // Distinct filter lists are few; the cap only guards against unbounded growth
+    private static final int MAX_CACHED = 4096;
+    private static final Map<List<String>, CompiledFilter> CACHE = new ConcurrentHashMap<>();
+
+    private final long[] bits;
+
+    private CompiledFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static CompiledFilter compile(List<String> filters) {
+        if (filters == null || filters.isEmpty()) return EMPTY;
+
+        TreeSet<String> entries = new TreeSet<>();
+        for (String f : filters) {
+            if (f == null) continue;
+            String s = f.trim();
+            if (!s.isEmpty()) entries.add(s);
+        }
+        if (entries.isEmpty()) return EMPTY;
+
+        List<String> key = List.copyOf(entries);
+        CompiledFilter cached = CACHE.get(key);
+        if (cached != null) return cached;
+
+        if (CACHE.size() >= MAX_CACHED) CACHE.clear();
+        cached = build(key);
+        CACHE.put(key, cached);
+        return cached;
+    }
+
+    /**
+     * Drop every cached filter (tags may have changed); callers recompile what they hold.
+     */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    private static CompiledFilter build(List<String> entries) {
+        long[] bits = new long[(MATERIALS.length + 63) >>> 6];
+        boolean any = false;
+
+        for (String s : entries) {
+            if (s.startsWith("#")) {
+                any |= addTag(bits, s.substring(1));
+            } else if (s.indexOf('*') >= 0) {
+                any |= addWildcard(bits, s);
+            } else {
+                Material m = Material.matchMaterial(s);
+                if (m != null && !m.isAir()) {
+                    set(bits, m);
+                    any = true;
+                }
+            }
+        }
+
+        return any ? new CompiledFilter(bits) : EMPTY;
+    }
+
+    boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    boolean allows(Material material) {
+        if (material == null) return false;
+        int o = material.ordinal();
+        return (bits[o >>> 6] & (1L << o)) != 0;
+    }
+
+    /**
+     * True if the entry is a tag or wildcard rather than a single material.
+     */
+    static boolean isPattern(String filter) {
+        return filter != null && (filter.startsWith("#") || filter.indexOf('*') >= 0);
+    }
+
+    private static boolean addTag(long[] bits, String tagKey) {
+        NamespacedKey key = NamespacedKey.fromString(tagKey.toLowerCase(Locale.ROOT));
+        if (key == null) return false;
+
+        Tag<Material> tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, key, Material.class);
+        if (tag == null) tag = Bukkit.getTag(Tag.REGISTRY_BLOCKS, key, Material.class);
+        if (tag == null) return false;
+
+        boolean any = false;
+        for (Material m : tag.getValues()) {
+            set(bits, m);
+            any = true;
+        }
+        return any;
+    }
+
+    private static boolean addWildcard(long[] bits, String glob) {
+        Pattern p = globToPattern(glob);
+
+        boolean any = false;
+        for (Material m : MATERIALS) {
+            if (m.isLegacy() || m.isAir()) continue;
+            if (!p.matcher(m.getKey().toString()).matches()) continue;
+            set(bits, m);
+            any = true;
+        }
+        return any;
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        int star;
+        while ((star = glob.indexOf('*', start)) >= 0) {
+            if (star > start) sb.append(Pattern.quote(glob.substring(start, star)));
+            sb.append(".*");
+            start = star + 1;
+        }
+        if (start < glob.length()) sb.append(Pattern.quote(glob.substring(start)));
+        return Pattern.compile(sb.toString());
+    }
+
+    private static void set(long[] bits, Material m) {
+        int o = m.ordinal();
+        bits[o >>> 6] |= 1L << o;
+    }
+}
@@ -0,0 +1,279 @@
+package com.entitycore.modules.hoppers;
+
+import com.entitycore.util.LongObjectMap;
+import com.entitycore.util.PackedPos;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Chunk-level storage backend for hopper filters ("hopperfilters.storage: chunk").
+ *
+ * All filtered hoppers of a chunk live in one binary record in the chunk's PDC, so a chunk
+ * load deserializes them in one go and a filter edit never rewrites a tile entity or
+ * triggers a block update. Filter strings are interned into a per-world palette stored
+ * in the world's PDC; records reference palette ids. The palette is split into pages of
+ * {@link #PALETTE_PAGE_SIZE} newline-joined strings ("hf_palette", "hf_palette_1", ...),
+ * so a new filter rewrites only the last page.
+ *
+ * A chunk without a record is scanned once for legacy tile data on its first load; the
+ * "hf_scanned" marker then tells later loads there is nothing to migrate.
+ *
+ * Record layout (version 1):
+ *   byte    version
+ *   varint  hopper count
+ *   per hopper:
+ *     byte    local x << 4 | local z
+ *     varint  zigzag(y)
+ *     byte    flags (bit 0 = enabled)
+ *     byte    non-empty filter slot count
+ *     per slot: byte slot index, varint palette id
+ */
+final class HopperChunkStore {
+
+    static final byte VERSION = 1;
+
+    private static final int FLAG_ENABLED = 1;
+
+    static final int PALETTE_PAGE_SIZE = 64;
+
+    private final JavaPlugin plugin;
+    private final NamespacedKey keyStore;
+    private final NamespacedKey keyScanned;
+    private final List<NamespacedKey> keyPalettePages = new ArrayList<>();
+
+    private final Map<UUID, Palette> palettes = new HashMap<>();
+
+    HopperChunkStore(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.keyStore = new NamespacedKey(plugin, "hf_store");
+        this.keyScanned = new NamespacedKey(plugin, "hf_scanned");
+    }
+
+    private NamespacedKey palettePageKey(int page) {
+        while (keyPalettePages.size() <= page) {
+            int p = keyPalettePages.size();
+            keyPalettePages.add(new NamespacedKey(plugin, p == 0 ? "hf_palette" : "hf_palette_" + p));
+        }
+        return keyPalettePages.get(page);
+    }
+
+    /**
+     * Decode every stored hopper of {@code chunk}, keyed by packed position.
+     * Returns null if the chunk has no record (or an unknown version).
+     */
+    LongObjectMap<HopperFilterData.CacheEntry> read(Chunk chunk) {
+        byte[] raw = chunk.getPersistentDataContainer().get(keyStore, PersistentDataType.BYTE_ARRAY);
+        if (raw == null || raw.length == 0) return null;
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        if (in.get() != VERSION) return null;
+
+        Palette palette = palette(chunk.getWorld());
+        int baseX = chunk.getX() << 4;
+        int baseZ = chunk.getZ() << 4;
+
+        try {
+            int count = readVarInt(in);
+            LongObjectMap<HopperFilterData.CacheEntry> out = new LongObjectMap<>(count);
+
+            for (int i = 0; i < count; i++) {
+                int xz = in.get() & 0xFF;
+                int y = zigzagDecode(readVarInt(in));
+                int flags = in.get() & 0xFF;
+                int slots = in.get() & 0xFF;
+
+                HopperFilterData.CacheEntry ce = new HopperFilterData.CacheEntry();
+                ce.enabled = (flags & FLAG_ENABLED) != 0;
+
+                for (int s = 0; s < slots; s++) {
+                    int slot = in.get() & 0xFF;
+                    String filter = palette.get(readVarInt(in));
+                    if (filter != null && slot < HopperFilterData.FILTER_SLOTS) ce.filters.set(slot, filter);
+                }
+                ce.recomputeAllowed();
+
+                out.put(PackedPos.pack(baseX + (xz >> 4), y, baseZ + (xz & 15)), ce);
+            }
+            return out;
+        } catch (BufferUnderflowException ex) {
+            return null; // truncated record: fall back to tile PDC
+        }
+    }
+
+    /**
+     * True if {@code chunk} was scanned for legacy tile data before and holds no record
+     * (an unreadable record is scanned again).
+     */
+    boolean isScannedEmpty(Chunk chunk) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        return pdc.has(keyScanned, PersistentDataType.BYTE) && !pdc.has(keyStore, PersistentDataType.BYTE_ARRAY);
+    }
+
+    void markScanned(Chunk chunk) {
+        chunk.getPersistentDataContainer().set(keyScanned, PersistentDataType.BYTE, (byte) 1);
+    }
+
+    /**
+     * Rewrite the record of {@code chunk} from the cached entries of its bucket.
+     * Hoppers with filter OFF and no filters are left out; an empty chunk drops its record.
+     */
+    void write(Chunk chunk, LongObjectMap<HopperFilterData.CacheEntry> entries) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        Palette palette = palette(chunk.getWorld());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int count = 0;
+
+        for (int i = 0, n = entries.capacity(); i < n; i++) {
+            HopperFilterData.CacheEntry ce = entries.valueAt(i);
+            if (ce == null || !isWorthStoring(ce)) continue;
+
+            long pos = entries.keyAt(i);
+            int x = PackedPos.unpackX(pos);
+            int z = PackedPos.unpackZ(pos);
+
+            body.write(((x & 15) << 4) | (z & 15));
+            writeVarInt(body, zigzagEncode(PackedPos.unpackY(pos)));
+            body.write(ce.enabled ? FLAG_ENABLED : 0);
+
+            int slots = 0;
+            for (String f : ce.filters) if (f != null && !f.isEmpty()) slots++;
+            body.write(slots);
+
+            for (int slot = 0; slot < ce.filters.size(); slot++) {
+                String f = ce.filters.get(slot);
+                if (f == null || f.isEmpty()) continue;
+                body.write(slot);
+                writeVarInt(body, palette.intern(f));
+            }
+            count++;
+        }
+
+        if (count == 0) {
+            // Keep the chunk marked, or the next load would migrate stale legacy tile data again
+            pdc.remove(keyStore);
+            pdc.set(keyScanned, PersistentDataType.BYTE, (byte) 1);
+            return;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + 6);
+        out.write(VERSION);
+        writeVarInt(out, count);
+        body.writeTo(out);
+
+        pdc.set(keyStore, PersistentDataType.BYTE_ARRAY, out.toByteArray());
+    }
+
+    void unloadWorld(World world) {
+        palettes.remove(world.getUID());
+    }
+
+    private static boolean isWorthStoring(HopperFilterData.CacheEntry ce) {
+        if (ce.enabled) return true;
+        for (String f : ce.filters) {
+            if (f != null && !f.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    private Palette palette(World world) {
+        Palette p = palettes.get(world.getUID());
+        if (p == null) {
+            p = new Palette(world);
+            palettes.put(world.getUID(), p);
+        }
+        return p;
+    }
+
+    /**
+     * Append-only list of filter strings for one world. Ids are never reused, so
+     * records written earlier stay valid.
+     */
+    private final class Palette {
+        private final World world;
+        private final List<String> entries = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        // Page new entries are appended to, and the id of its first entry
+        private int lastPage;
+        private int lastPageStart;
+
+        Palette(World world) {
+            this.world = world;
+
+            PersistentDataContainer pdc = world.getPersistentDataContainer();
+            for (int page = 0; ; page++) {
+                String raw = pdc.get(palettePageKey(page), PersistentDataType.STRING);
+                if (raw == null || raw.isEmpty()) break;
+
+                lastPage = page;
+                lastPageStart = entries.size();
+                for (String s : raw.split("\n", -1)) {
+                    ids.putIfAbsent(s, entries.size());
+                    entries.add(s);
+                }
+            }
+        }
+
+        String get(int id) {
+            return id >= 0 && id < entries.size() ? entries.get(id) : null;
+        }
+
+        int intern(String filter) {
+            Integer id = ids.get(filter);
+            if (id != null) return id;
+
+            int next = entries.size();
+            if (next > 0 && next - lastPageStart >= PALETTE_PAGE_SIZE) {
+                lastPage++;
+                lastPageStart = next;
+            }
+            entries.add(filter);
+            ids.put(filter, next);
+
+            // Persist before any record references the new id; earlier pages never change
+            world.getPersistentDataContainer().set(palettePageKey(lastPage), PersistentDataType.STRING,
+                    String.join("\n", entries.subList(lastPageStart, entries.size())));
+            return next;
+        }
+    }
+
+    /* ===============================================================
+       VARINT / ZIGZAG
+       =============================================================== */
+
+    private static void writeVarInt(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new BufferUnderflowException();
+    }
+
+    private static int zigzagEncode(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int zigzagDecode(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
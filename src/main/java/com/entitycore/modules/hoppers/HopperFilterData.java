@@ -1,10 +1,14 @@
 package com.entitycore.modules.hoppers;
 
+import com.entitycore.util.LongObjectMap;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.block.TileState;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
@@ -12,68 +16,101 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.entitycore.util.PackedPos.chunkKey;
+import static com.entitycore.util.PackedPos.chunkKeyOf;
+import static com.entitycore.util.PackedPos.pack;
+import static com.entitycore.util.PackedPos.unpackX;
+import static com.entitycore.util.PackedPos.unpackY;
+import static com.entitycore.util.PackedPos.unpackZ;
 
 public final class HopperFilterData {
 
     public static final int FILTER_SLOTS = 25;
 
+    // Backoff bounds for blocked/starved hoppers. The cap bounds latency for changes
+    // we get no event for (e.g. the far half of a double chest).
+    static final int BACKOFF_MIN_TICKS = 2;
+    static final int BACKOFF_MAX_TICKS = 40;
+
     private final JavaPlugin plugin;
     private final NamespacedKey keyEnabled;
     private final NamespacedKey keyFilters;
 
     /**
-     * Runtime cache (prevents PDC timing issues).
-     * Key: worldUUID:x:y:z
+     * Runtime cache + enabled set, grouped per world, then per chunk.
+     * Chunk buckets are filled on chunk load and dropped on chunk unload,
+     * so memory follows loaded chunks rather than every hopper ever touched.
+     * Inner key: packed x/y/z long (see {@link #pack(int, int, int)}).
      */
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
 
     /**
-     * Runtime enabled set so we don't scan chunks every tick.
-     * Key: worldUUID:x:y:z
+     * Chunk-level binary backend; null = legacy per-tile PDC backend.
      */
-    private final Set<String> enabled = ConcurrentHashMap.newKeySet();
+    private HopperChunkStore chunkStore;
 
     public HopperFilterData(JavaPlugin plugin) {
+        this(plugin, new NamespacedKey(plugin, "hf_enabled"), new NamespacedKey(plugin, "hf_filters"));
+    }
+
+    // Package-private: JMH benchmarks build this without a live plugin (src/jmh)
+    HopperFilterData(JavaPlugin plugin, NamespacedKey keyEnabled, NamespacedKey keyFilters) {
         this.plugin = plugin;
-        this.keyEnabled = new NamespacedKey(plugin, "hf_enabled");
-        this.keyFilters = new NamespacedKey(plugin, "hf_filters");
+        this.keyEnabled = keyEnabled;
+        this.keyFilters = keyFilters;
+    }
+
+    /**
+     * Select the storage backend. Call before the registry is bootstrapped.
+     * Chunk storage still reads legacy tile data and migrates it on first chunk load.
+     */
+    public void setChunkStorage(boolean useChunkStore) {
+        this.chunkStore = useChunkStore ? new HopperChunkStore(plugin) : null;
+    }
+
+    public boolean isChunkStorage() {
+        return chunkStore != null;
     }
 
     public boolean isHopperBlock(Block block) {
-        return block != null
-                && block.getType() == Material.HOPPER
-                && block.getState() instanceof TileState;
+        // Type check only: every hopper is a TileState, no need for a block-state snapshot
+        return block != null && block.getType() == Material.HOPPER;
     }
 
     public boolean isEnabled(Block hopperBlock) {
         if (!isHopperBlock(hopperBlock)) return false;
 
-        String k = locKey(hopperBlock);
+        WorldIndex index = index(hopperBlock);
+        long k = locKey(hopperBlock);
 
-        // Fast path: enabled set knows
-        if (enabled.contains(k)) return true;
-
-        CacheEntry ce = cache.get(k);
+        // Fast path: chunk registry knows
+        CacheEntry ce = index.get(k);
         if (ce != null) return ce.enabled;
 
         CacheEntry loaded = loadFromPdc(hopperBlock);
-        cache.put(k, loaded);
-
-        if (loaded.enabled) enabled.add(k);
+        index.put(k, loaded);
         return loaded.enabled;
     }
 
     public void setEnabled(Block hopperBlock, boolean enabledNow) {
         if (!isHopperBlock(hopperBlock)) return;
 
-        String k = locKey(hopperBlock);
+        WorldIndex index = index(hopperBlock);
+        long k = locKey(hopperBlock);
 
-        CacheEntry ce = cache.computeIfAbsent(k, kk -> new CacheEntry());
+        CacheEntry ce = index.get(k);
+        if (ce == null) ce = loadFromPdc(hopperBlock);
         ce.enabled = enabledNow;
         ce.recomputeAllowed();
+        ce.resetBackoff();
+        index.put(k, ce);
 
-        if (enabledNow) enabled.add(k);
-        else enabled.remove(k);
+        if (chunkStore != null) {
+            saveChunk(index, hopperBlock);
+            return;
+        }
 
         TileState state = (TileState) hopperBlock.getState();
         PersistentDataContainer pdc = state.getPersistentDataContainer();
@@ -89,17 +126,16 @@ public final class HopperFilterData {
             return new ArrayList<>(Collections.nCopies(FILTER_SLOTS, ""));
         }
 
-        String k = locKey(hopperBlock);
+        WorldIndex index = index(hopperBlock);
+        long k = locKey(hopperBlock);
 
-        CacheEntry ce = cache.get(k);
+        CacheEntry ce = index.get(k);
         if (ce != null && ce.filters != null) {
             return new ArrayList<>(ce.filters);
         }
 
         CacheEntry loaded = loadFromPdc(hopperBlock);
-        cache.put(k, loaded);
-
-        if (loaded.enabled) enabled.add(k);
+        index.put(k, loaded);
         return new ArrayList<>(loaded.filters);
     }
 
@@ -113,11 +149,22 @@ public final class HopperFilterData {
             }
         }
 
-        String k = locKey(hopperBlock);
+        WorldIndex index = index(hopperBlock);
+        long k = locKey(hopperBlock);
 
-        CacheEntry ce = cache.computeIfAbsent(k, kk -> new CacheEntry());
+        CacheEntry ce = index.get(k);
+        if (ce == null) {
+            ce = loadFromPdc(hopperBlock);
+            index.put(k, ce);
+        }
         ce.filters = normalized;
         ce.recomputeAllowed();
+        ce.resetBackoff();
+
+        if (chunkStore != null) {
+            saveChunk(index, hopperBlock);
+            return;
+        }
 
         TileState state = (TileState) hopperBlock.getState();
         PersistentDataContainer pdc = state.getPersistentDataContainer();
@@ -131,110 +178,328 @@ public final class HopperFilterData {
      * - Toggle ON: STRICT whitelist.
      *   - Empty whitelist => allow NOTHING.
      */
-    public boolean allows(Block hopperBlock, String materialKey) {
+    public boolean allows(Block hopperBlock, Material material) {
         if (!isHopperBlock(hopperBlock)) return true;
+        return entry(hopperBlock).allows(material);
+    }
+
+    public boolean allows(Block hopperBlock, String materialKey) {
+        String key = normalizeKey(materialKey);
+        return allows(hopperBlock, key.isBlank() ? null : Material.matchMaterial(key));
+    }
 
-        String k = locKey(hopperBlock);
+    /**
+     * Cached entry for a hopper block, loading it from PDC on first access.
+     * Callers must have checked {@link #isHopperBlock(Block)}.
+     */
+    CacheEntry entry(Block hopperBlock) {
+        WorldIndex index = index(hopperBlock);
+        long k = locKey(hopperBlock);
 
-        CacheEntry ce = cache.get(k);
+        CacheEntry ce = index.get(k);
         if (ce == null) {
             ce = loadFromPdc(hopperBlock);
-            cache.put(k, ce);
-            if (ce.enabled) enabled.add(k);
+            index.put(k, ce);
         }
+        return ce;
+    }
 
-        if (!ce.enabled) return true; // OFF => allow all
+    /**
+     * At most one rewritten transfer per filtered hopper per server tick (event mode).
+     * Returns false if this hopper already moved an item during {@code tick}.
+     */
+    public boolean claimTransfer(Block hopperBlock, int tick) {
+        if (!isHopperBlock(hopperBlock)) return false;
 
-        String key = normalizeKey(materialKey);
-        if (key.isBlank()) return false;
+        CacheEntry ce = entry(hopperBlock);
+        if (ce.lastTransferTick == tick) return false;
+        ce.lastTransferTick = tick;
+        return true;
+    }
+
+    /**
+     * Live per-world indexes for the tick loop (walk chunk buckets directly).
+     */
+    Collection<WorldIndex> worldIndexes() {
+        return worlds.values();
+    }
 
-        if (ce.allowedSet.isEmpty()) return false; // strict: empty = allow nothing
+    /**
+     * Drop cached neighbour topology of every cached hopper that could see a change at {@code changed}
+     * (the block itself and its 6 faces). Chests also reshape their neighbour's inventory
+     * (single <-> double), so their horizontal neighbours' neighbourhoods are dropped too.
+     */
+    public void invalidateAround(Block changed) {
+        if (changed == null) return;
+
+        WorldIndex index = worlds.get(changed.getWorld().getUID());
+        if (index == null) return;
+
+        int x = changed.getX();
+        int y = changed.getY();
+        int z = changed.getZ();
+
+        invalidateNeighbourhood(index, x, y, z);
+
+        Material type = changed.getType();
+        if (type == Material.CHEST || type == Material.TRAPPED_CHEST) {
+            invalidateNeighbourhood(index, x + 1, y, z);
+            invalidateNeighbourhood(index, x - 1, y, z);
+            invalidateNeighbourhood(index, x, y, z + 1);
+            invalidateNeighbourhood(index, x, y, z - 1);
+        }
+    }
+
+    private void invalidateNeighbourhood(WorldIndex index, int x, int y, int z) {
+        invalidateTopology(index, x, y, z);
+        invalidateTopology(index, x + 1, y, z);
+        invalidateTopology(index, x - 1, y, z);
+        invalidateTopology(index, x, y + 1, z);
+        invalidateTopology(index, x, y - 1, z);
+        invalidateTopology(index, x, y, z + 1);
+        invalidateTopology(index, x, y, z - 1);
+    }
+
+    private void invalidateTopology(WorldIndex index, int x, int y, int z) {
+        CacheEntry ce = index.get(pack(x, y, z));
+        if (ce == null) return;
+        ce.topology = null;
+        ce.resetBackoff();
+    }
+
+    /**
+     * Reset push/pull backoff of cached hoppers whose inventory or neighbours changed at {@code changed}.
+     */
+    public void wakeAround(Block changed) {
+        if (changed == null) return;
+        wakeAround(changed.getWorld(), changed.getX(), changed.getY(), changed.getZ(), null);
+    }
+
+    public void wakeAround(Location changed) {
+        wakeAround(changed, null);
+    }
+
+    /**
+     * As {@link #wakeAround(Location)}, also handing every enabled filtered hopper found
+     * there to {@code enabledHoppers} (event mode schedules a pass for them).
+     */
+    public void wakeAround(Location changed, Consumer<Block> enabledHoppers) {
+        if (changed == null) return;
+        wakeAround(changed.getWorld(), changed.getBlockX(), changed.getBlockY(), changed.getBlockZ(), enabledHoppers);
+    }
+
+    private void wakeAround(World world, int x, int y, int z, Consumer<Block> enabledHoppers) {
+        if (world == null) return;
+
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) return;
+
+        wake(index, world, x, y, z, enabledHoppers);
+        wake(index, world, x + 1, y, z, enabledHoppers);
+        wake(index, world, x - 1, y, z, enabledHoppers);
+        wake(index, world, x, y + 1, z, enabledHoppers);
+        wake(index, world, x, y - 1, z, enabledHoppers);
+        wake(index, world, x, y, z + 1, enabledHoppers);
+        wake(index, world, x, y, z - 1, enabledHoppers);
+    }
+
+    private void wake(WorldIndex index, World world, int x, int y, int z, Consumer<Block> enabledHoppers) {
+        CacheEntry ce = index.get(pack(x, y, z));
+        if (ce == null) return;
+
+        ce.resetBackoff();
+        if (enabledHoppers != null && ce.enabled) enabledHoppers.accept(world.getBlockAt(x, y, z));
+    }
 
-        return ce.allowedSet.contains(key);
+    /**
+     * Forget a hopper that is being removed (or a stale record under a newly placed one),
+     * so a new hopper placed there starts fresh.
+     */
+    public void forget(Block hopperBlock) {
+        if (hopperBlock == null) return;
+
+        WorldIndex index = worlds.get(hopperBlock.getWorld().getUID());
+        if (index == null) return;
+
+        long k = locKey(hopperBlock);
+        if (index.get(k) == null) return;
+
+        index.remove(k);
+        if (chunkStore != null) saveChunk(index, hopperBlock);
+    }
+
+    /**
+     * Recompile the filters of every cached hopper, e.g. after a datapack reload changed tags.
+     */
+    public void recompileFilters() {
+        CompiledFilter.clearCache();
+        for (WorldIndex index : worlds.values()) {
+            LongObjectMap<ChunkBucket> chunks = index.chunks;
+            for (int c = 0, n = chunks.capacity(); c < n; c++) {
+                ChunkBucket bucket = chunks.valueAt(c);
+                if (bucket == null) continue;
+                for (int i = 0, m = bucket.cache.capacity(); i < m; i++) {
+                    CacheEntry ce = bucket.cache.valueAt(i);
+                    if (ce != null) ce.recomputeAllowed();
+                }
+            }
+        }
     }
 
     /**
-     * Snapshot of enabled hopper keys for safe iteration.
+     * Number of enabled filtered hoppers in loaded chunks (O(loaded chunks)).
      */
-    public List<String> enabledKeysSnapshot() {
-        return new ArrayList<>(enabled);
+    public int enabledCount() {
+        int total = 0;
+        for (WorldIndex index : worlds.values()) {
+            LongObjectMap<ChunkBucket> chunks = index.chunks;
+            for (int c = 0, n = chunks.capacity(); c < n; c++) {
+                ChunkBucket bucket = chunks.valueAt(c);
+                if (bucket != null) total += bucket.enabled.size();
+            }
+        }
+        return total;
     }
 
     /**
-     * Resolve a key back to a Block (may return null if world/chunk unloaded).
+     * Register every enabled filtered hopper of a freshly loaded chunk.
+     * Returns the number of enabled hoppers found.
      */
-    public Block resolveKey(String key) {
-        if (key == null) return null;
-        String[] parts = key.split(":");
-        if (parts.length != 4) return null;
-
-        UUID worldId;
-        try {
-            worldId = UUID.fromString(parts[0]);
-        } catch (IllegalArgumentException ex) {
-            return null;
+    public int loadChunk(Chunk chunk) {
+        if (chunk == null) return 0;
+
+        if (chunkStore != null) {
+            LongObjectMap<CacheEntry> stored = chunkStore.read(chunk);
+            if (stored != null) return loadStoredChunk(chunk, stored);
+
+            // Scanned on an earlier load and nothing to migrate: no tile-entity walk
+            if (chunkStore.isScannedEmpty(chunk)) return 0;
+        }
+
+        int count = 0;
+        WorldIndex index = null;
+        ChunkBucket migrated = null;
+
+        // Only hoppers are snapshotted, and only to read their PDC
+        for (BlockState state : chunk.getTileEntities(b -> b.getType() == Material.HOPPER, false)) {
+            if (!(state instanceof TileState ts)) continue;
+
+            PersistentDataContainer pdc = ts.getPersistentDataContainer();
+            CacheEntry ce = readEntry(pdc);
+
+            // Chunk storage: carry every configured legacy hopper over, not only enabled ones
+            boolean keep = ce.enabled || (chunkStore != null && pdc.has(keyFilters, PersistentDataType.STRING));
+            if (!keep) continue;
+
+            if (index == null) index = index(chunk.getWorld().getUID());
+            long k = pack(state.getX(), state.getY(), state.getZ());
+            index.put(k, ce);
+            if (chunkStore != null) migrated = index.chunks.get(chunkKeyOf(k));
+            if (ce.enabled) count++;
+        }
+
+        if (migrated != null) {
+            chunkStore.write(chunk, migrated.cache);
+            migrated.stored = true;
+        }
+        if (chunkStore != null) chunkStore.markScanned(chunk);
+        return count;
+    }
+
+    private int loadStoredChunk(Chunk chunk, LongObjectMap<CacheEntry> stored) {
+        WorldIndex index = index(chunk.getWorld().getUID());
+        long ck = chunkKey(chunk.getX(), chunk.getZ());
+
+        ChunkBucket bucket = new ChunkBucket();
+        bucket.stored = true;
+
+        int count = 0;
+        boolean stale = false;
+        for (int i = 0, n = stored.capacity(); i < n; i++) {
+            CacheEntry ce = stored.valueAt(i);
+            if (ce == null) continue;
+
+            // Hopper removed without an event we see (WorldEdit, /setblock, ...): drop it,
+            // or a hopper placed there later would inherit its filter
+            long k = stored.keyAt(i);
+            if (chunk.getBlock(unpackX(k) & 15, unpackY(k), unpackZ(k) & 15).getType() != Material.HOPPER) {
+                stale = true;
+                continue;
+            }
+
+            bucket.cache.put(k, ce);
+            if (ce.enabled) {
+                bucket.enabled.put(k, ce);
+                count++;
+            }
         }
 
-        World w = Bukkit.getWorld(worldId);
-        if (w == null) return null;
+        index.chunks.put(ck, bucket);
+        if (stale) chunkStore.write(chunk, bucket.cache);
+        return count;
+    }
 
-        int x, y, z;
-        try {
-            x = Integer.parseInt(parts[1]);
-            y = Integer.parseInt(parts[2]);
-            z = Integer.parseInt(parts[3]);
-        } catch (NumberFormatException ex) {
-            return null;
+    private void saveChunk(WorldIndex index, Block hopperBlock) {
+        long ck = chunkKeyOf(locKey(hopperBlock));
+        ChunkBucket bucket = index.chunks.get(ck);
+
+        Chunk chunk = hopperBlock.getChunk();
+        if (bucket == null) {
+            chunkStore.write(chunk, new LongObjectMap<>());
+            return;
         }
 
-        return w.getBlockAt(x, y, z);
+        chunkStore.write(chunk, bucket.cache);
+        bucket.stored = true;
     }
 
     /**
-     * Optional: one-time bootstrap to populate enabled set from currently loaded tile entities.
-     * Call once at module enable to avoid "needs first toggle after reboot".
+     * Drop the registry bucket of an unloading chunk.
+     */
+    public void unloadChunk(Chunk chunk) {
+        if (chunk == null) return;
+
+        WorldIndex index = worlds.get(chunk.getWorld().getUID());
+        if (index == null) return;
+
+        index.chunks.remove(chunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    public void unloadWorld(World world) {
+        if (world == null) return;
+        worlds.remove(world.getUID());
+        if (chunkStore != null) chunkStore.unloadWorld(world);
+    }
+
+    /**
+     * Populate the registry from chunks that were already loaded before the module enabled.
+     * Chunks loaded afterwards are picked up through {@link #loadChunk(Chunk)}.
      */
     public void bootstrapEnabledFromLoadedChunks() {
+        int count = 0;
         for (World world : Bukkit.getWorlds()) {
-            for (var chunk : world.getLoadedChunks()) {
-                for (var state : chunk.getTileEntities()) {
-                    if (!(state instanceof TileState ts)) continue;
-                    Block b = ts.getBlock();
-                    if (b.getType() != Material.HOPPER) continue;
-
-                    PersistentDataContainer pdc = ts.getPersistentDataContainer();
-                    Byte enabledByte = pdc.get(keyEnabled, PersistentDataType.BYTE);
-                    boolean en = enabledByte != null && enabledByte == (byte) 1;
-
-                    if (!en) continue;
-
-                    String k = locKey(b);
-                    enabled.add(k);
-
-                    CacheEntry ce = cache.computeIfAbsent(k, kk -> new CacheEntry());
-                    ce.enabled = true;
-
-                    String raw = pdc.get(keyFilters, PersistentDataType.STRING);
-                    List<String> list = new ArrayList<>(Collections.nCopies(FILTER_SLOTS, ""));
-                    if (raw != null && !raw.isBlank()) {
-                        String[] f = raw.split("\\|", -1);
-                        for (int i = 0; i < FILTER_SLOTS && i < f.length; i++) {
-                            list.set(i, normalizeKey(f[i]));
-                        }
-                    }
-                    ce.filters = list;
-                    ce.recomputeAllowed();
-                }
+            for (Chunk chunk : world.getLoadedChunks()) {
+                count += loadChunk(chunk);
             }
         }
-        plugin.getLogger().info("[HopperFilters] Bootstrapped enabled filtered hoppers: " + enabled.size());
+        plugin.getLogger().info("[HopperFilters] Bootstrapped enabled filtered hoppers: " + count);
     }
 
     private CacheEntry loadFromPdc(Block hopperBlock) {
-        CacheEntry ce = new CacheEntry();
+        // Chunk storage: a chunk with a loaded record knows every configured hopper,
+        // so a miss means "not configured" and needs no tile-entity snapshot
+        if (chunkStore != null) {
+            WorldIndex index = worlds.get(hopperBlock.getWorld().getUID());
+            ChunkBucket bucket = index == null ? null : index.chunks.get(chunkKeyOf(locKey(hopperBlock)));
+            if (bucket != null && bucket.stored) return new CacheEntry();
+        }
 
         TileState state = (TileState) hopperBlock.getState();
-        PersistentDataContainer pdc = state.getPersistentDataContainer();
+        return readEntry(state.getPersistentDataContainer());
+    }
+
+    private CacheEntry readEntry(PersistentDataContainer pdc) {
+        CacheEntry ce = new CacheEntry();
 
         Byte b = pdc.get(keyEnabled, PersistentDataType.BYTE);
         ce.enabled = (b != null && b == (byte) 1);
@@ -253,8 +518,20 @@ public final class HopperFilterData {
         return ce;
     }
 
-    private String locKey(Block b) {
-        return b.getWorld().getUID() + ":" + b.getX() + ":" + b.getY() + ":" + b.getZ();
+    private WorldIndex index(Block b) {
+        return index(b.getWorld().getUID());
+    }
+
+    private WorldIndex index(UUID worldId) {
+        WorldIndex index = worlds.get(worldId);
+        if (index == null) {
+            index = worlds.computeIfAbsent(worldId, WorldIndex::new);
+        }
+        return index;
+    }
+
+    private long locKey(Block b) {
+        return pack(b.getX(), b.getY(), b.getZ());
     }
 
     private String normalizeKey(String key) {
@@ -262,23 +539,107 @@ public final class HopperFilterData {
         String s = key.trim();
         if (s.isEmpty()) return "";
         s = s.toLowerCase(Locale.ROOT);
+
+        // Item tags keep their '#' prefix: "#logs" -> "#minecraft:logs"
+        String prefix = "";
+        if (s.startsWith("#")) {
+            prefix = "#";
+            s = s.substring(1);
+        }
         if (!s.contains(":")) s = "minecraft:" + s;
-        return s;
+        return prefix + s;
+    }
+
+    /**
+     * Per-world runtime state. Main-thread only.
+     */
+    static final class WorldIndex {
+        final UUID worldId;
+        final LongObjectMap<ChunkBucket> chunks = new LongObjectMap<>();
+
+        WorldIndex(UUID worldId) {
+            this.worldId = worldId;
+        }
+
+        CacheEntry get(long k) {
+            ChunkBucket bucket = chunks.get(chunkKeyOf(k));
+            return bucket == null ? null : bucket.cache.get(k);
+        }
+
+        void put(long k, CacheEntry ce) {
+            long ck = chunkKeyOf(k);
+            ChunkBucket bucket = chunks.get(ck);
+            if (bucket == null) {
+                bucket = new ChunkBucket();
+                chunks.put(ck, bucket);
+            }
+            bucket.cache.put(k, ce);
+            if (ce.enabled) bucket.enabled.put(k, ce);
+            else bucket.enabled.remove(k);
+        }
+
+        void remove(long k) {
+            ChunkBucket bucket = chunks.get(chunkKeyOf(k));
+            if (bucket == null) return;
+            bucket.cache.remove(k);
+            bucket.enabled.remove(k);
+        }
+    }
+
+    /**
+     * Cached hoppers of one loaded chunk.
+     */
+    static final class ChunkBucket {
+        final LongObjectMap<CacheEntry> cache = new LongObjectMap<>();
+        final LongObjectMap<CacheEntry> enabled = new LongObjectMap<>();
+
+        // Chunk storage: this bucket mirrors the chunk's record (cache misses = unconfigured)
+        boolean stored = false;
     }
 
-    private static final class CacheEntry {
+    static final class CacheEntry {
         boolean enabled = false;
+        int lastTransferTick = Integer.MIN_VALUE;
         List<String> filters = new ArrayList<>(Collections.nCopies(FILTER_SLOTS, ""));
-        Set<String> allowedSet = new HashSet<>();
+        CompiledFilter allowed = CompiledFilter.EMPTY;
+
+        // Cached neighbour layout; null = resolve again on next use
+        HopperTopology topology;
+
+        // Adaptive backoff (server ticks): output blocked / input starved
+        int pushBlockedUntil;
+        int pushDelay;
+        int pullStarvedUntil;
+        int pullDelay;
 
         void recomputeAllowed() {
-            allowedSet.clear();
-            if (filters == null) return;
-            for (String f : filters) {
-                if (f == null) continue;
-                String s = f.trim();
-                if (!s.isEmpty()) allowedSet.add(s);
-            }
+            allowed = CompiledFilter.compile(filters);
+        }
+
+        boolean allows(Material material) {
+            if (!enabled) return true; // OFF => allow all
+            return allowed.allows(material); // strict: empty = allow nothing
+        }
+
+        void backOffPush(int now) {
+            pushDelay = nextDelay(pushDelay);
+            pushBlockedUntil = now + pushDelay;
+        }
+
+        void backOffPull(int now) {
+            pullDelay = nextDelay(pullDelay);
+            pullStarvedUntil = now + pullDelay;
+        }
+
+        void resetBackoff() {
+            pushDelay = 0;
+            pushBlockedUntil = 0;
+            pullDelay = 0;
+            pullStarvedUntil = 0;
+        }
+
+        private static int nextDelay(int delay) {
+            return delay <= 0 ? BACKOFF_MIN_TICKS : Math.min(BACKOFF_MAX_TICKS, delay << 1);
         }
     }
 }
@@ -59,6 +59,42 @@ public final class HopperFiltersAdminListener implements Listener {
         if (slot == HopperFiltersAdminMenu.SLOT_RESET) {
             menu.reset(player, inv);
             saveInterval();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_BATCH_DECREASE) {
+            menu.slowerBatch(player, inv);
+            saveBatch();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_BATCH_INCREASE) {
+            menu.fasterBatch(player, inv);
+            saveBatch();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_BUDGET_DECREASE) {
+            menu.lessBudget(player, inv);
+            saveBudget();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_BUDGET_INCREASE) {
+            menu.moreBudget(player, inv);
+            saveBudget();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_BUDGET_STATUS) {
+            menu.toggleUnlimitedBudget(player, inv);
+            saveBudget();
+            return;
+        }
+
+        if (slot == HopperFiltersAdminMenu.SLOT_MODE) {
+            menu.toggleMode(player, inv);
+            saveMode();
         }
     }
 
@@ -66,4 +102,19 @@ public final class HopperFiltersAdminListener implements Listener {
         plugin.getConfig().set("hopperfilters.tick-interval", hopperListener.getTickInterval());
         plugin.saveConfig();
     }
+
+    private void saveBatch() {
+        plugin.getConfig().set("hopperfilters.batch-size", hopperListener.getBatchSize());
+        plugin.saveConfig();
+    }
+
+    private void saveBudget() {
+        plugin.getConfig().set("hopperfilters.tick-budget-us", hopperListener.getTickBudgetMicros());
+        plugin.saveConfig();
+    }
+
+    private void saveMode() {
+        plugin.getConfig().set("hopperfilters.mode", hopperListener.isEventDriven() ? "event" : "polling");
+        plugin.saveConfig();
+    }
 }
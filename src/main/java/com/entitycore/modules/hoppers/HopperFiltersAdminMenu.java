@@ -15,12 +15,23 @@ public final class HopperFiltersAdminMenu {
     public static final String TITLE = "HopperFilters Settings";
     public static final int SIZE = 27;
 
+    public static final int SLOT_MODE     = 4;
+    public static final int SLOT_BATCH_DECREASE = 6;
+    public static final int SLOT_BATCH_STATUS   = 7;
+    public static final int SLOT_BATCH_INCREASE = 8;
     public static final int SLOT_DECREASE = 11;
     public static final int SLOT_STATUS   = 13;
     public static final int SLOT_INCREASE = 15;
+    public static final int SLOT_BUDGET_DECREASE = 18;
+    public static final int SLOT_BUDGET_STATUS   = 19;
+    public static final int SLOT_BUDGET_INCREASE = 20;
     public static final int SLOT_RESET    = 22;
     public static final int SLOT_CLOSE    = 26;
 
+    public static final int BUDGET_STEP_MICROS = 250;
+    // Budget set when an operator switches unlimited (the default) off
+    public static final int DEFAULT_BUDGET_MICROS = 2000;
+
     private final HopperFiltersListener listener;
     private final int defaultInterval;
 
@@ -42,6 +53,15 @@ public final class HopperFiltersAdminMenu {
         inv.setItem(SLOT_STATUS, statusItem(listener.getTickInterval()));
         inv.setItem(SLOT_RESET, button(Material.PAPER, "§eReset to Default", List.of("§7Default: §f" + defaultInterval + " tick(s)")));
         inv.setItem(SLOT_CLOSE, button(Material.BARRIER, "§cClose", List.of()));
+        inv.setItem(SLOT_MODE, modeItem(listener.isEventDriven()));
+
+        inv.setItem(SLOT_BATCH_DECREASE, button(Material.IRON_NUGGET, "§cHopper Speed ÷2", List.of("§7Fewer items per push/pull.")));
+        inv.setItem(SLOT_BATCH_STATUS, batchItem());
+        inv.setItem(SLOT_BATCH_INCREASE, button(Material.GOLD_NUGGET, "§aHopper Speed ×2", List.of("§7More items per push/pull.")));
+
+        inv.setItem(SLOT_BUDGET_DECREASE, button(Material.REDSTONE_TORCH, "§cBudget -" + BUDGET_STEP_MICROS + "µs", List.of("§7Less time per tick, more deferral.")));
+        inv.setItem(SLOT_BUDGET_STATUS, budgetItem());
+        inv.setItem(SLOT_BUDGET_INCREASE, button(Material.LANTERN, "§aBudget +" + BUDGET_STEP_MICROS + "µs", List.of("§7More time per tick, less deferral.")));
     }
 
     public boolean isMenu(Inventory inv) {
@@ -64,6 +84,45 @@ public final class HopperFiltersAdminMenu {
         player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.1f);
     }
 
+    public void slowerBatch(Player player, Inventory inv) {
+        listener.setBatchSize(listener.getBatchSize() / 2);
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 0.9f);
+    }
+
+    public void fasterBatch(Player player, Inventory inv) {
+        listener.setBatchSize(listener.getBatchSize() * 2);
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.1f);
+    }
+
+    public void lessBudget(Player player, Inventory inv) {
+        int now = listener.getTickBudgetMicros();
+        // Never steps into 0 (= unlimited); that is the status button's toggle
+        if (now > 0) listener.setTickBudgetMicros(Math.max(BUDGET_STEP_MICROS, now - BUDGET_STEP_MICROS));
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 0.9f);
+    }
+
+    public void moreBudget(Player player, Inventory inv) {
+        int now = listener.getTickBudgetMicros();
+        if (now > 0) listener.setTickBudgetMicros(now + BUDGET_STEP_MICROS);
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.1f);
+    }
+
+    public void toggleUnlimitedBudget(Player player, Inventory inv) {
+        listener.setTickBudgetMicros(listener.getTickBudgetMicros() > 0 ? 0 : DEFAULT_BUDGET_MICROS);
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1f);
+    }
+
+    public void toggleMode(Player player, Inventory inv) {
+        listener.setEventDriven(!listener.isEventDriven());
+        render(inv);
+        player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1f);
+    }
+
     public void reset(Player player, Inventory inv) {
         listener.setTickInterval(defaultInterval);
         render(inv);
@@ -85,6 +144,42 @@ public final class HopperFiltersAdminMenu {
         return it;
     }
 
+    private ItemStack batchItem() {
+        int batch = listener.getBatchSize();
+        return button(Material.HOPPER, "§bHopper Speed", List.of(
+                "§7Multiplier: §fx" + batch,
+                "§7Moves up to §f" + batch + " §7item(s) per push/pull,",
+                "§7as whole stacks where possible.",
+                "§8(1 = vanilla-like, 64 = full stack)"
+        ));
+    }
+
+    private ItemStack budgetItem() {
+        int budget = listener.getTickBudgetMicros();
+        return button(Material.CLOCK, "§bTick Budget", List.of(
+                "§7Budget: §f" + (budget <= 0 ? "unlimited" : budget + "µs"),
+                "§7Last tick: §f" + listener.getLastProcessed() + " §7processed, §f"
+                        + listener.getLastDeferred() + " §7deferred",
+                "§8Deferred hoppers resume next tick (round-robin).",
+                "§8Reopen to refresh stats.",
+                "§8Click to toggle unlimited."
+        ));
+    }
+
+    private ItemStack modeItem(boolean eventDriven) {
+        return button(
+                eventDriven ? Material.OBSERVER : Material.CLOCK,
+                eventDriven ? "§bMode: Event-driven" : "§bMode: Polling",
+                List.of(
+                        "§7Polling: every filtered hopper is moved",
+                        "§7by the plugin each tick interval.",
+                        "§7Event-driven: vanilla moves items, the",
+                        "§7filter only rewrites blocked transfers.",
+                        "§8Click to switch. Applies immediately."
+                )
+        );
+    }
+
     private ItemStack button(Material mat, String name, List<String> lore) {
         ItemStack it = new ItemStack(mat, 1);
         ItemMeta meta = it.getItemMeta();
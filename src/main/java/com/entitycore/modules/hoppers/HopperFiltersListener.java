@@ -1,33 +1,75 @@
 package com.entitycore.modules.hoppers;
 
+import com.entitycore.util.LongObjectMap;
+import com.entitycore.util.PackedPos;
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.Container;
+import org.bukkit.block.BlockFace;
 import org.bukkit.block.Hopper;
-import org.bukkit.block.data.Directional;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.inventory.*;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public final class HopperFiltersListener implements Listener {
 
+    public static final int MAX_TICK_BUDGET_MICROS = 50_000;
+
+    // Vanilla hopper cooldown after a successful transfer
+    private static final int TRANSFER_COOLDOWN_TICKS = 8;
+
     private final JavaPlugin plugin;
     private final HopperFilterData data;
     private final HopperFiltersMenu menu;
 
     private BukkitTask tickTask;
+    private boolean bootstrapped = false;
 
     // Operator-controlled speed (ticks between iterations). 1 = fastest.
     private int tickInterval = 1;
 
+    // Operator-controlled items moved per push/pull operation (1..64). 1 = vanilla-like.
+    private int batchSize = 1;
+
+    // Operator-controlled time budget per tick in microseconds. 0 = unlimited.
+    private int tickBudgetMicros = 0;
+
+    // Round-robin cursor: where the tick loop resumes after running out of budget.
+    // Held as keys: removals and rehashes move entries between slots.
+    private UUID cursorWorld;
+    private long cursorChunk;
+    private long cursorPos;
+    private boolean cursorTicked; // cursor hopper already ticked this pass (parked on a rehash)
+    private int passProcessed;
+
+    // Stats of the last tick (shown in the OP GUI)
+    private int lastProcessed;
+    private int lastDeferred;
+
+    // Event-driven mode: filter inside the vanilla transfer path, no polling loop.
+    private boolean eventDriven = false;
+
+    // Sleeping-hopper scheduler (event mode): hoppers that need one pass, processed next tick
+    private final Set<Block> wakeQueue = new LinkedHashSet<>();
+    private final Consumer<Block> wakeFn = this::wake;
+    private BukkitTask wakeTask;
+
     public HopperFiltersListener(JavaPlugin plugin, HopperFilterData data, HopperFiltersMenu menu) {
         this.plugin = plugin;
         this.data = data;
@@ -54,6 +96,45 @@ public final class HopperFiltersListener implements Listener {
         }
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int size) {
+        this.batchSize = Math.max(1, Math.min(64, size));
+    }
+
+    public int getTickBudgetMicros() {
+        return tickBudgetMicros;
+    }
+
+    public void setTickBudgetMicros(int micros) {
+        this.tickBudgetMicros = Math.max(0, Math.min(MAX_TICK_BUDGET_MICROS, micros));
+    }
+
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    public int getLastDeferred() {
+        return lastDeferred;
+    }
+
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    public void setEventDriven(boolean eventDriven) {
+        if (this.eventDriven == eventDriven) return;
+
+        this.eventDriven = eventDriven;
+
+        // Restart to start/stop the polling loop
+        if (tickTask != null || bootstrapped) {
+            restart();
+        }
+    }
+
     /* ===============================================================
        LIFECYCLE
        =============================================================== */
@@ -62,7 +143,13 @@ public final class HopperFiltersListener implements Listener {
         if (tickTask != null) return;
 
         // Helps avoid “doesn’t work until re-toggle after reboot”
-        data.bootstrapEnabledFromLoadedChunks();
+        if (!bootstrapped) {
+            data.bootstrapEnabledFromLoadedChunks();
+            bootstrapped = true;
+        }
+
+        // Event mode: vanilla transfers drive everything, idle hoppers cost nothing
+        if (eventDriven) return;
 
         tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, tickInterval, tickInterval);
     }
@@ -72,6 +159,13 @@ public final class HopperFiltersListener implements Listener {
             tickTask.cancel();
             tickTask = null;
         }
+        cursorWorld = null;
+        passProcessed = 0;
+        if (wakeTask != null) {
+            wakeTask.cancel();
+            wakeTask = null;
+        }
+        wakeQueue.clear();
     }
 
     private void restart() {
@@ -79,6 +173,101 @@ public final class HopperFiltersListener implements Listener {
         start();
     }
 
+    /* ===============================================================
+       CHUNK-INDEXED REGISTRY
+       =============================================================== */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        data.loadChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        data.unloadChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        data.unloadWorld(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onResourcesReloaded(ServerResourcesReloadedEvent event) {
+        // /minecraft:reload can change item tags behind compiled filters
+        data.recompileFilters();
+    }
+
+    /* ===============================================================
+       TOPOLOGY CACHE INVALIDATION
+       =============================================================== */
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block b = event.getBlockPlaced();
+        data.invalidateAround(b);
+        // A new hopper never inherits a record left behind by one removed without a break event
+        if (b.getType() == Material.HOPPER) data.forget(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block b = event.getBlock();
+        data.invalidateAround(b);
+        if (b.getType() == Material.HOPPER) data.forget(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        onPistonMove(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        onPistonMove(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    private void onPistonMove(Block piston, List<Block> moved, BlockFace direction) {
+        data.invalidateAround(piston.getRelative(direction));
+        for (Block b : moved) {
+            data.invalidateAround(b);
+            data.invalidateAround(b.getRelative(direction));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        onExplode(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        onExplode(event.blockList());
+    }
+
+    private void onExplode(List<Block> blocks) {
+        for (Block b : blocks) {
+            data.invalidateAround(b);
+            if (b.getType() == Material.HOPPER) data.forget(b);
+        }
+    }
+
+    /* ===============================================================
+       BACKOFF RESET / WAKE: INVENTORY CHANGES AROUND FILTERED HOPPERS
+       =============================================================== */
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMoveMonitor(InventoryMoveItemEvent event) {
+        Consumer<Block> woken = eventDriven ? wakeFn : null;
+        data.wakeAround(event.getSource().getLocation(), woken);
+        data.wakeAround(event.getDestination().getLocation(), woken);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onContainerClose(InventoryCloseEvent event) {
+        data.wakeAround(event.getInventory().getLocation(), eventDriven ? wakeFn : null);
+    }
+
     /* ===============================================================
        FILTER UI EVENTS (COMMAND-OPENED)
        =============================================================== */
@@ -101,6 +290,7 @@ public final class HopperFiltersListener implements Listener {
             event.setCancelled(true);
             if (event.getWhoClicked() instanceof org.bukkit.entity.Player p) {
                 menu.toggle(p, top);
+                wake(menu.getEditingHopper(p));
             }
             return;
         }
@@ -117,7 +307,10 @@ public final class HopperFiltersListener implements Listener {
         }
 
         if (event.getWhoClicked() instanceof org.bukkit.entity.Player p) {
-            Bukkit.getScheduler().runTask(plugin, () -> menu.persist(p, top));
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                menu.persist(p, top);
+                wake(menu.getEditingHopper(p));
+            });
         }
     }
 
@@ -140,7 +333,10 @@ public final class HopperFiltersListener implements Listener {
         }
 
         if (event.getWhoClicked() instanceof org.bukkit.entity.Player p) {
-            Bukkit.getScheduler().runTask(plugin, () -> menu.persist(p, top));
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                menu.persist(p, top);
+                wake(menu.getEditingHopper(p));
+            });
         }
     }
 
@@ -152,7 +348,9 @@ public final class HopperFiltersListener implements Listener {
         if (top == null) return;
 
         if (event.getPlayer() instanceof org.bukkit.entity.Player p) {
+            Block hopper = menu.getEditingHopper(p);
             menu.saveAndClose(p, top);
+            wake(hopper);
         }
     }
 
@@ -182,6 +380,11 @@ public final class HopperFiltersListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onMove(InventoryMoveItemEvent event) {
+        if (eventDriven) {
+            onMoveEventDriven(event);
+            return;
+        }
+
         if (event.getDestination().getHolder() instanceof Hopper dest) {
             if (data.isEnabled(dest.getBlock())) {
                 event.setCancelled(true);
@@ -198,163 +401,381 @@ public final class HopperFiltersListener implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPickup(InventoryPickupItemEvent event) {
         if (!(event.getInventory().getHolder() instanceof Hopper hopper)) return;
-        if (data.isEnabled(hopper.getBlock())) {
-            event.setCancelled(true);
+
+        Block b = hopper.getBlock();
+        if (!data.isEnabled(b)) return;
+
+        // Event mode: vanilla pickup is fine for whitelisted items
+        if (eventDriven && data.allows(b, event.getItem().getItemStack().getType())) return;
+
+        event.setCancelled(true);
+    }
+
+    /* ===============================================================
+       EVENT-DRIVEN MODE: FILTER INSIDE THE VANILLA TRANSFER PATH
+       =============================================================== */
+
+    private void onMoveEventDriven(InventoryMoveItemEvent event) {
+        // Only intake needs a decision: a filtered hopper only ever holds whitelisted items,
+        // so whatever it pushes out is already allowed (unless the target is filtered too).
+        if (!(event.getDestination().getHolder() instanceof Hopper dest)) return;
+
+        Block destBlock = dest.getBlock();
+        if (!data.isEnabled(destBlock)) return;
+
+        if (data.allows(destBlock, event.getItem().getType())) return;
+
+        // Vanilla picked a non-whitelisted slot: cancel and move the first allowed slot instead
+        event.setCancelled(true);
+
+        if (!data.claimTransfer(destBlock, Bukkit.getCurrentTick())) return;
+        if (!moveFirstAllowed(destBlock, event.getSource(), event.getDestination())) return;
+
+        // Vanilla only starts the cooldown for transfers it performed itself; without it the
+        // initiating hopper would retry (and we would move an item) every tick
+        Location at = event.getInitiator().getLocation();
+        if (at != null) coolDown(at.getBlock());
+    }
+
+    private boolean moveFirstAllowed(Block destHopperBlock, Inventory srcInv, Inventory destInv) {
+        for (int slot = 0; slot < srcInv.getSize(); slot++) {
+            ItemStack it = srcInv.getItem(slot);
+            if (it == null || it.getType() == Material.AIR) continue;
+
+            if (!data.allows(destHopperBlock, it.getType())) continue;
+
+            ItemStack one = it.clone();
+            one.setAmount(1);
+
+            if (!destInv.addItem(one).isEmpty()) return false;
+
+            decrementSlot(srcInv, slot, it);
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * Live hopper state of {@code b} (no snapshot), or null if it is not a hopper.
+     */
+    private static Hopper liveHopper(Block b) {
+        if (b.getType() != Material.HOPPER) return null;
+        return b.getState(false) instanceof Hopper h ? h : null;
+    }
+
+    private static void coolDown(Block hopperBlock) {
+        Hopper live = liveHopper(hopperBlock);
+        if (live != null) live.setTransferCooldown(TRANSFER_COOLDOWN_TICKS);
+    }
+
+    /**
+     * Queue a filtered hopper for one purge/push/pull pass on the next tick.
+     * Used in event mode after its filter changes or a neighbouring inventory changes
+     * (polling mode picks it up anyway). The pass moves items only when the hopper's
+     * vanilla cooldown has run out, and starts a new one if it did.
+     */
+    private void wake(Block hopperBlock) {
+        if (!eventDriven || hopperBlock == null) return;
+
+        wakeQueue.add(hopperBlock);
+        if (wakeTask != null) return;
+
+        wakeTask = Bukkit.getScheduler().runTask(plugin, () -> {
+            wakeTask = null;
+            List<Block> woken = new ArrayList<>(wakeQueue);
+            wakeQueue.clear();
+            for (Block b : woken) {
+                Hopper live = liveHopper(b);
+                if (live == null) continue;
+
+                boolean ready = live.getTransferCooldown() <= 0;
+                if (tickHopper(b, ready) && ready) live.setTransferCooldown(TRANSFER_COOLDOWN_TICKS);
+            }
+        });
     }
 
     /* ===============================================================
        TICK LOOP: PURGE + CUSTOM MOVE
        =============================================================== */
 
-    private void tick() {
-        List<String> keys = data.enabledKeysSnapshot();
-        if (keys.isEmpty()) return;
+    // Package-private for the JMH benchmarks (src/jmh)
+    void tick() {
+        long budgetNanos = tickBudgetMicros * 1000L;
+        long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+
+        int processed = 0;
+        Collection<HopperFilterData.WorldIndex> indexes = data.worldIndexes();
+
+        // Cursor world unloaded meanwhile: go straight on with the other worlds
+        boolean resuming = false;
+        if (cursorWorld != null) {
+            for (HopperFilterData.WorldIndex index : indexes) {
+                if (index.worldId.equals(cursorWorld)) {
+                    resuming = true;
+                    break;
+                }
+            }
+        }
+
+        for (HopperFilterData.WorldIndex index : indexes) {
+            LongObjectMap<HopperFilterData.ChunkBucket> chunks = index.chunks;
+
+            int startChunk = 0;
+            int startSlot = 0;
+            if (resuming) {
+                if (!index.worldId.equals(cursorWorld)) continue;
+                resuming = false;
+
+                // Cursor chunk unloaded meanwhile: redo this world from the start.
+                // Cursor hopper gone: redo its chunk from the start.
+                int c = chunks.indexOf(cursorChunk);
+                if (c >= 0) {
+                    startChunk = c;
+                    int slot = chunks.valueAt(c).enabled.indexOf(cursorPos);
+                    startSlot = slot < 0 ? 0 : (cursorTicked ? slot + 1 : slot);
+                }
+            }
+
+            if (chunks.isEmpty()) continue;
+
+            World world = Bukkit.getWorld(index.worldId);
+            if (world == null) continue;
+
+            // Walk the live tables; if one rehashes mid-walk, resume from the cursor next tick
+            int chunkCapacity = chunks.capacity();
+            for (int c = startChunk; c < chunkCapacity; c++) {
+                HopperFilterData.ChunkBucket bucket = chunks.valueAt(c);
+                if (bucket == null || bucket.enabled.isEmpty()) continue;
+
+                long chunkKey = chunks.keyAt(c);
+                LongObjectMap<HopperFilterData.CacheEntry> enabled = bucket.enabled;
+                int capacity = enabled.capacity();
+                for (int slot = (c == startChunk ? startSlot : 0); slot < capacity; slot++) {
+                    if (enabled.valueAt(slot) == null) continue;
+                    long pos = enabled.keyAt(slot);
+
+                    // Budget spent: park the cursor here and resume next tick
+                    if (processed > 0 && System.nanoTime() >= deadline) {
+                        parkCursor(index.worldId, chunkKey, pos, false, processed);
+                        return;
+                    }
+
+                    tickHopper(world.getBlockAt(
+                            PackedPos.unpackX(pos),
+                            PackedPos.unpackY(pos),
+                            PackedPos.unpackZ(pos)
+                    ));
+                    processed++;
+
+                    // Slot order is gone after a rehash: the pass goes on from this hopper
+                    if (enabled.capacity() != capacity || chunks.capacity() != chunkCapacity) {
+                        parkCursor(index.worldId, chunkKey, pos, true, processed);
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Pass complete: next tick starts a fresh pass
+        cursorWorld = null;
+        cursorChunk = 0;
+        cursorPos = 0;
+        cursorTicked = false;
+        passProcessed = 0;
+        lastProcessed = processed;
+        lastDeferred = 0;
+    }
+
+    private void parkCursor(UUID worldId, long chunkKey, long pos, boolean ticked, int processed) {
+        cursorWorld = worldId;
+        cursorChunk = chunkKey;
+        cursorPos = pos;
+        cursorTicked = ticked;
+        passProcessed += processed;
+        lastProcessed = processed;
+        lastDeferred = Math.max(0, data.enabledCount() - passProcessed);
+    }
+
+    private void tickHopper(Block b) {
+        tickHopper(b, true);
+    }
 
-        for (String key : keys) {
-            Block b = data.resolveKey(key);
-            if (b == null) continue;
-            if (!data.isHopperBlock(b)) continue;
-            if (!data.isEnabled(b)) continue;
+    /**
+     * One purge pass, plus push/pull when {@code transfer} is set.
+     *
+     * @return true if any item was pushed or pulled
+     */
+    private boolean tickHopper(Block b, boolean transfer) {
+        if (!data.isHopperBlock(b)) return false;
+
+        // Resolve the compiled filter once; every per-item check below is a bit lookup
+        HopperFilterData.CacheEntry filter = data.entry(b);
+        if (!filter.enabled) return false;
+
+        // Neighbour layout is cached until a nearby block changes
+        HopperTopology topo = filter.topology;
+        if (topo == null || !topo.isValid()) {
+            topo = HopperTopology.resolve(b);
+            filter.topology = topo;
+            if (topo == null) return false;
+        }
 
-            if (!(b.getState() instanceof Hopper hopperState)) continue;
+        int now = Bukkit.getCurrentTick();
 
-            Inventory hopperInv = hopperState.getInventory();
-            if (hopperInv == null) continue;
+        // 1) Purge junk from hopper
+        purgeHopper(topo, filter);
+        if (!transfer) return false;
 
-            // 1) Purge junk from hopper
-            purgeHopper(b, hopperInv);
+        boolean moved = false;
 
-            // 2) Push 1 allowed item out
-            pushOne(b, hopperInv);
+        // 2) Push up to batchSize allowed items out (skipped while output is blocked)
+        if (now >= filter.pushBlockedUntil) {
+            moved |= pushBatch(topo, filter, now);
+        }
 
-            // 3) Pull 1 allowed item in
-            pullOne(b, hopperInv);
+        // 3) Pull up to batchSize allowed items in (skipped while input is starved)
+        if (now >= filter.pullStarvedUntil) {
+            moved |= pullBatch(topo, filter, now);
         }
+        return moved;
     }
 
     /* ===============================================================
        PURGE
        =============================================================== */
 
-    private void purgeHopper(Block hopperBlock, Inventory hopperInv) {
+    private void purgeHopper(HopperTopology topo, HopperFilterData.CacheEntry filter) {
+        Inventory hopperInv = topo.hopperInv;
         for (int slot = 0; slot < hopperInv.getSize(); slot++) {
             ItemStack item = hopperInv.getItem(slot);
             if (item == null || item.getType() == Material.AIR) continue;
 
-            String matKey = item.getType().getKey().toString();
-            if (data.allows(hopperBlock, matKey)) continue;
+            if (filter.allows(item.getType())) continue;
 
             ItemStack toReturn = item.clone();
             hopperInv.setItem(slot, null);
 
-            boolean returned = tryReturnToAnyFeedingContainer(hopperBlock, toReturn);
+            boolean returned = tryReturnToAnyFeedingContainer(topo, toReturn);
             if (!returned) {
                 // Delete by design
             }
         }
     }
 
-    private boolean tryReturnToAnyFeedingContainer(Block hopperBlock, ItemStack stack) {
-        for (Container c : getFeedingContainers(hopperBlock)) {
-            Inventory inv = c.getInventory();
-            if (inv == null) continue;
+    private boolean tryReturnToAnyFeedingContainer(HopperTopology topo, ItemStack stack) {
+        for (Inventory inv : topo.sources) {
             if (inv.addItem(stack).isEmpty()) return true;
         }
         return false;
     }
 
-    private List<Container> getFeedingContainers(Block hopperBlock) {
-        List<Container> out = new ArrayList<>();
-        addIfContainer(hopperBlock.getRelative(0, 1, 0), out);
-        addIfContainer(hopperBlock.getRelative(1, 0, 0), out);
-        addIfContainer(hopperBlock.getRelative(-1, 0, 0), out);
-        addIfContainer(hopperBlock.getRelative(0, 0, 1), out);
-        addIfContainer(hopperBlock.getRelative(0, 0, -1), out);
-        return out;
-    }
-
-    private void addIfContainer(Block block, List<Container> out) {
-        if (block == null) return;
-        if (block.getState() instanceof Container c) out.add(c);
-    }
-
     /* ===============================================================
        CUSTOM OUTFLOW
        =============================================================== */
 
-    private void pushOne(Block hopperBlock, Inventory hopperInv) {
-        Block destBlock = getHopperFacingTarget(hopperBlock);
-        if (destBlock == null) return;
+    private boolean pushBatch(HopperTopology topo, HopperFilterData.CacheEntry filter, int now) {
+        Inventory destInv = topo.dest;
+        if (destInv == null) {
+            filter.backOffPush(now); // nothing to push into until a block changes
+            return false;
+        }
+
+        Inventory hopperInv = topo.hopperInv;
+        HopperFilterData.CacheEntry destFilter = topo.destIsHopper ? data.entry(topo.destBlock) : null;
 
-        if (!(destBlock.getState() instanceof Container destContainer)) return;
-        Inventory destInv = destContainer.getInventory();
-        if (destInv == null) return;
+        int remaining = batchSize;
 
-        for (int i = 0; i < hopperInv.getSize(); i++) {
+        for (int i = 0; i < hopperInv.getSize() && remaining > 0; i++) {
             ItemStack it = hopperInv.getItem(i);
             if (it == null || it.getType() == Material.AIR) continue;
 
-            String key = it.getType().getKey().toString();
-            if (!data.allows(hopperBlock, key)) continue;
-
-            if (destContainer instanceof Hopper destHopper) {
-                Block destHopperBlock = destHopper.getBlock();
-                if (data.isEnabled(destHopperBlock) && !data.allows(destHopperBlock, key)) {
-                    continue;
-                }
-            }
-
-            ItemStack one = it.clone();
-            one.setAmount(1);
+            Material type = it.getType();
+            if (!filter.allows(type)) continue;
+            if (destFilter != null && !destFilter.allows(type)) continue;
 
-            if (!destInv.addItem(one).isEmpty()) return;
+            int moved = transfer(hopperInv, i, it, destInv, remaining);
+            if (moved <= 0) break; // destination full
 
-            decrementSlot(hopperInv, i, it);
-            return;
+            remaining -= moved;
         }
-    }
 
-    private Block getHopperFacingTarget(Block hopperBlock) {
-        if (hopperBlock == null) return null;
-        if (!(hopperBlock.getBlockData() instanceof Directional dir)) return null;
-        return hopperBlock.getRelative(dir.getFacing());
+        if (remaining < batchSize) {
+            filter.resetBackoff();
+            // Our hopper has room again, the destination has new items
+            data.wakeAround(topo.hopperBlock);
+            data.wakeAround(topo.destBlock);
+            return true;
+        }
+        if (!hopperInv.isEmpty()) {
+            // Purge already ran, so everything left is pushable: the destination took nothing
+            filter.backOffPush(now);
+        }
+        return false;
     }
 
     /* ===============================================================
        CUSTOM INTAKE
        =============================================================== */
 
-    private void pullOne(Block hopperBlock, Inventory hopperInv) {
-        for (Container source : getFeedingContainers(hopperBlock)) {
-            Inventory srcInv = source.getInventory();
-            if (srcInv == null) continue;
+    private boolean pullBatch(HopperTopology topo, HopperFilterData.CacheEntry filter, int now) {
+        Inventory hopperInv = topo.hopperInv;
+        int remaining = batchSize;
+
+        pull:
+        for (int s = 0; s < topo.sources.length; s++) {
+            Inventory srcInv = topo.sources[s];
+            int before = remaining;
 
-            for (int slot = 0; slot < srcInv.getSize(); slot++) {
+            for (int slot = 0; slot < srcInv.getSize() && remaining > 0; slot++) {
                 ItemStack it = srcInv.getItem(slot);
                 if (it == null || it.getType() == Material.AIR) continue;
 
-                String key = it.getType().getKey().toString();
-                if (!data.allows(hopperBlock, key)) continue;
+                if (!filter.allows(it.getType())) continue;
 
-                ItemStack one = it.clone();
-                one.setAmount(1);
+                int moved = transfer(srcInv, slot, it, hopperInv, remaining);
+                if (moved <= 0) break pull; // hopper full
 
-                if (!hopperInv.addItem(one).isEmpty()) {
-                    return;
-                }
-
-                decrementSlot(srcInv, slot, it);
-                return;
+                remaining -= moved;
             }
+
+            // The source has room again (a hopper feeding it may be waiting)
+            if (remaining < before) data.wakeAround(topo.sourceBlocks[s]);
+            if (remaining <= 0) break;
+        }
+
+        if (remaining < batchSize) {
+            filter.resetBackoff();
+            return true;
+        }
+        filter.backOffPull(now); // starved (no matching source items) or own inventory full
+        return false;
+    }
+
+    private int transfer(Inventory from, int slot, ItemStack current, Inventory to, int max) {
+        int amount = Math.min(max, current.getAmount());
+
+        ItemStack batch = current.clone();
+        batch.setAmount(amount);
+
+        Map<Integer, ItemStack> leftover = to.addItem(batch);
+        int moved = amount;
+        for (ItemStack rest : leftover.values()) {
+            moved -= rest.getAmount();
         }
+
+        if (moved > 0) decrementSlot(from, slot, current, moved);
+        return moved;
     }
 
     private void decrementSlot(Inventory inv, int slot, ItemStack current) {
+        decrementSlot(inv, slot, current, 1);
+    }
+
+    private void decrementSlot(Inventory inv, int slot, ItemStack current, int by) {
         int amt = current.getAmount();
-        if (amt <= 1) inv.setItem(slot, null);
+        if (amt <= by) inv.setItem(slot, null);
         else {
-            current.setAmount(amt - 1);
+            current.setAmount(amt - by);
             inv.setItem(slot, current);
         }
     }
@@ -1,6 +1,7 @@
 package com.entitycore.modules.hoppers;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.block.Block;
@@ -48,6 +49,11 @@ public final class HopperFiltersMenu {
                 continue;
             }
 
+            if (CompiledFilter.isPattern(key)) {
+                inv.setItem(i, patternItem(key));
+                continue;
+            }
+
             Material mat = materialFromKey(key);
             if (mat == null) {
                 inv.setItem(i, null);
@@ -83,7 +89,8 @@ public final class HopperFiltersMenu {
                 filters.set(i, "");
                 continue;
             }
-            filters.set(i, it.getType().getKey().toString());
+            String pattern = patternOf(it);
+            filters.set(i, pattern != null ? pattern : it.getType().getKey().toString());
         }
 
         data.setFilters(hopper, filters);
@@ -119,7 +126,9 @@ public final class HopperFiltersMenu {
             meta.setDisplayName(enabled ? "§aFilter: ON" : "§7Filter: OFF");
             meta.setLore(List.of(
                     "§fON: strict whitelist (only items in slots 1-25).",
-                    "§7OFF: vanilla hopper behavior."
+                    "§7OFF: vanilla hopper behavior.",
+                    "§8Tip: a name tag renamed to #minecraft:logs",
+                    "§8or minecraft:*_ore matches a tag / wildcard."
             ));
             it.setItemMeta(meta);
         }
@@ -136,6 +145,31 @@ public final class HopperFiltersMenu {
         return it;
     }
 
+    /**
+     * Any item renamed to "#tag" or a "*" wildcard acts as a pattern filter slot.
+     */
+    private String patternOf(ItemStack it) {
+        ItemMeta meta = it.getItemMeta();
+        if (meta == null || !meta.hasDisplayName()) return null;
+
+        String name = ChatColor.stripColor(meta.getDisplayName());
+        if (name == null) return null;
+
+        name = name.trim();
+        return CompiledFilter.isPattern(name) ? name : null;
+    }
+
+    private ItemStack patternItem(String pattern) {
+        ItemStack it = new ItemStack(Material.NAME_TAG, 1);
+        ItemMeta meta = it.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(pattern);
+            meta.setLore(List.of(pattern.startsWith("#") ? "§7Item tag filter" : "§7Wildcard filter"));
+            it.setItemMeta(meta);
+        }
+        return it;
+    }
+
     private Material materialFromKey(String key) {
         if (key == null || key.isBlank()) return null;
 
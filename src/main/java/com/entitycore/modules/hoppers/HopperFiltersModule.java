@@ -30,6 +30,10 @@ public final class HopperFiltersModule implements Module {
 
         // Config defaults
         plugin.getConfig().addDefault("hopperfilters.tick-interval", 4);
+        plugin.getConfig().addDefault("hopperfilters.mode", "polling"); // polling | event
+        plugin.getConfig().addDefault("hopperfilters.tick-budget-us", 0); // 0 = unlimited
+        plugin.getConfig().addDefault("hopperfilters.batch-size", 1); // items per push/pull, 1..64
+        plugin.getConfig().addDefault("hopperfilters.storage", "tile"); // tile | chunk
         plugin.getConfig().options().copyDefaults(true);
         plugin.saveConfig();
 
@@ -38,10 +42,14 @@ public final class HopperFiltersModule implements Module {
         if (interval > 20) interval = 20;
 
         this.data = new HopperFilterData(plugin);
+        this.data.setChunkStorage("chunk".equalsIgnoreCase(plugin.getConfig().getString("hopperfilters.storage", "tile")));
         this.menu = new HopperFiltersMenu(data);
 
         this.listener = new HopperFiltersListener(plugin, data, menu);
         this.listener.setTickInterval(interval);
+        this.listener.setBatchSize(plugin.getConfig().getInt("hopperfilters.batch-size", 1));
+        this.listener.setTickBudgetMicros(plugin.getConfig().getInt("hopperfilters.tick-budget-us", 0));
+        this.listener.setEventDriven("event".equalsIgnoreCase(plugin.getConfig().getString("hopperfilters.mode", "polling")));
 
         this.command = new HopperFiltersCommand(plugin, menu);
 
@@ -75,7 +83,11 @@ public final class HopperFiltersModule implements Module {
         // Start mover/purge loop
         listener.start();
 
-        plugin.getLogger().info("[HopperFilters] Enabled. tick-interval=" + listener.getTickInterval());
+        plugin.getLogger().info("[HopperFilters] Enabled. tick-interval=" + listener.getTickInterval()
+                + " tick-budget-us=" + listener.getTickBudgetMicros()
+                + " batch-size=" + listener.getBatchSize()
+                + " storage=" + (data.isChunkStorage() ? "chunk" : "tile")
+                + " mode=" + (listener.isEventDriven() ? "event" : "polling"));
     }
 
     @Override
@@ -0,0 +1,132 @@
+package com.entitycore.modules.hoppers;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Container;
+import org.bukkit.block.Hopper;
+import org.bukkit.block.data.Directional;
+import org.bukkit.inventory.Inventory;
+
+import java.util.Arrays;
+
+/**
+ * Cached neighbour layout of one filtered hopper: its own inventory, the containers
+ * feeding it (above + 4 sides) and the container it faces.
+ *
+ * Container#getInventory() of a placed block state is the live inventory, so these
+ * references stay usable across ticks. The cache is dropped by block place/break,
+ * piston and explosion events around the hopper (see HopperFilterData#invalidateAround)
+ * and with the chunk bucket on unload. As a last guard, {@link #isValid()} checks that
+ * every cached block still has the type it had when resolved.
+ */
+final class HopperTopology {
+
+    private static final int[][] FEEDING_OFFSETS = {
+            { 0, 1, 0},
+            { 1, 0, 0}, {-1, 0, 0},
+            { 0, 0, 1}, { 0, 0,-1}
+    };
+
+    private static final Inventory[] NO_INVENTORIES = new Inventory[0];
+    private static final Block[] NO_BLOCKS = new Block[0];
+    private static final Material[] NO_TYPES = new Material[0];
+
+    final Block hopperBlock;
+    final Inventory hopperInv;
+
+    final Inventory[] sources;
+    final Block[] sourceBlocks;
+    private final Material[] sourceTypes;
+
+    final BlockFace facing;
+    final Block destBlock;       // null if the hopper faces no container
+    final Inventory dest;        // null if the hopper faces no container
+    final boolean destIsHopper;
+    private final Material destType;
+
+    private HopperTopology(Block hopperBlock, Inventory hopperInv,
+                           Inventory[] sources, Block[] sourceBlocks, Material[] sourceTypes,
+                           BlockFace facing, Block destBlock, Inventory dest, Material destType) {
+        this.hopperBlock = hopperBlock;
+        this.hopperInv = hopperInv;
+        this.sources = sources;
+        this.sourceBlocks = sourceBlocks;
+        this.sourceTypes = sourceTypes;
+        this.facing = facing;
+        this.destBlock = destBlock;
+        this.dest = dest;
+        this.destType = destType;
+        this.destIsHopper = destType == Material.HOPPER;
+    }
+
+    /**
+     * Take block-state snapshots once and keep the live inventories. Returns null if
+     * {@code hopperBlock} is not a hopper.
+     */
+    static HopperTopology resolve(Block hopperBlock) {
+        if (!(hopperBlock.getState() instanceof Hopper hopperState)) return null;
+
+        Inventory hopperInv = hopperState.getInventory();
+        if (hopperInv == null) return null;
+
+        Inventory[] sources = new Inventory[FEEDING_OFFSETS.length];
+        Block[] sourceBlocks = new Block[FEEDING_OFFSETS.length];
+        Material[] sourceTypes = new Material[FEEDING_OFFSETS.length];
+        int n = 0;
+
+        for (int[] o : FEEDING_OFFSETS) {
+            Block nb = hopperBlock.getRelative(o[0], o[1], o[2]);
+            if (!(nb.getState() instanceof Container c)) continue;
+
+            Inventory inv = c.getInventory();
+            if (inv == null) continue;
+
+            sources[n] = inv;
+            sourceBlocks[n] = nb;
+            sourceTypes[n] = nb.getType();
+            n++;
+        }
+
+        BlockFace facing = null;
+        Block destBlock = null;
+        Inventory dest = null;
+        Material destType = null;
+
+        if (hopperBlock.getBlockData() instanceof Directional dir) {
+            facing = dir.getFacing();
+            Block target = hopperBlock.getRelative(facing);
+            if (target.getState() instanceof Container c && c.getInventory() != null) {
+                destBlock = target;
+                dest = c.getInventory();
+                destType = target.getType();
+            }
+        }
+
+        if (n == 0) {
+            return new HopperTopology(hopperBlock, hopperInv, NO_INVENTORIES, NO_BLOCKS, NO_TYPES,
+                    facing, destBlock, dest, destType);
+        }
+        if (n < sources.length) {
+            sources = Arrays.copyOf(sources, n);
+            sourceBlocks = Arrays.copyOf(sourceBlocks, n);
+            sourceTypes = Arrays.copyOf(sourceTypes, n);
+        }
+
+        return new HopperTopology(hopperBlock, hopperInv, sources, sourceBlocks, sourceTypes,
+                facing, destBlock, dest, destType);
+    }
+
+    /**
+     * Cheap type-only check (no block-state snapshot) that nothing was swapped
+     * behind our back, e.g. by another plugin editing blocks without events.
+     */
+    boolean isValid() {
+        if (hopperBlock.getType() != Material.HOPPER) return false;
+        if (destBlock != null && destBlock.getType() != destType) return false;
+        for (int i = 0; i < sourceBlocks.length; i++) {
+            if (sourceBlocks[i].getType() != sourceTypes[i]) return false;
+        }
+        return true;
+    }
+}
@@ -17,6 +17,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.List;
+import java.util.Locale;
 
 public final class InfectionAdminGui {
 
@@ -38,6 +39,11 @@ public final class InfectionAdminGui {
         inv.setItem(12, item(Material.REDSTONE, ChatColor.RED + "- Speed", List.of(ChatColor.GRAY + "Decrease infection rate")));
         inv.setItem(14, item(Material.GLOWSTONE_DUST, ChatColor.GREEN + "+ Speed", List.of(ChatColor.GRAY + "Increase infection rate")));
 
+        // Time budget controls
+        inv.setItem(3, item(Material.REDSTONE, ChatColor.RED + "- Budget", List.of(ChatColor.GRAY + "Less time per cycle")));
+        inv.setItem(4, budgetItem(config, service));
+        inv.setItem(5, item(Material.GLOWSTONE_DUST, ChatColor.GREEN + "+ Budget", List.of(ChatColor.GRAY + "More time per cycle")));
+
         // Damage toggle
         inv.setItem(15, damageItem(config.isDamageEnabled()));
 
@@ -46,6 +52,7 @@ public final class InfectionAdminGui {
                 List.of(
                         ChatColor.GRAY + "Frontier: " + service.frontierSize(),
                         ChatColor.GRAY + "Infected chunks: " + service.infectedChunkCount(),
+                        ChatColor.GRAY + "Rate: " + formatRate(service.blocksPerMs()) + " blocks/ms",
                         ChatColor.GRAY + "Turns blocks into: " + config.getInfectionMaterial().name()
                 )));
 
@@ -82,6 +89,21 @@ public final class InfectionAdminGui {
                 ));
     }
 
+    private static ItemStack budgetItem(InfectionConfig config, InfectionService service) {
+        int ms = config.getCycleBudgetMs();
+        return item(Material.COMPASS,
+                ChatColor.GOLD + "Cycle Time Budget",
+                List.of(
+                        ChatColor.GRAY + "Budget: " + (ms <= 0 ? "unlimited" : ms + " ms"),
+                        ChatColor.GRAY + "Rate: " + formatRate(service.blocksPerMs()) + " blocks/ms",
+                        ChatColor.DARK_GRAY + "Leftover work waits for the next cycle"
+                ));
+    }
+
+    private static String formatRate(double blocksPerMs) {
+        return blocksPerMs <= 0 ? "-" : String.format(Locale.ROOT, "%.1f", blocksPerMs);
+    }
+
     private static ItemStack item(Material mat, String name, List<String> lore) {
         ItemStack it = new ItemStack(mat);
         ItemMeta meta = it.getItemMeta();
@@ -172,6 +194,15 @@ public final class InfectionAdminGui {
                 return;
             }
 
+            if (slot == 3 || slot == 5) {
+                config.setCycleBudgetMs(config.getCycleBudgetMs() + (slot == 3 ? -1 : 1));
+                config.save();
+
+                inv.setItem(4, budgetItem(config, service));
+                viewer.playSound(viewer.getLocation(), Sound.UI_BUTTON_CLICK, 1f, slot == 3 ? 0.9f : 1.4f);
+                return;
+            }
+
             if (slot == 26) {
                 viewer.getInventory().addItem(InfectionSeedItem.create(plugin, config));
                 viewer.playSound(viewer.getLocation(), Sound.ENTITY_ITEM_PICKUP, 1f, 1.2f);
@@ -0,0 +1,186 @@
+package com.entitycore.modules.infection;
+
+import com.entitycore.util.LongObjectMap;
+import com.entitycore.util.PackedPos;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.Container;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides which frontier blocks convert, optionally on a worker pool.
+ *
+ * The main thread hands over ChunkSnapshots of the chunks a batch touches (shared by
+ * the batches in flight) and submits the batch; a worker reads block types from the snapshots
+ * and looks them up in the compiled {@link InfectionRules} (which fold in air, already
+ * infected, container and unbreakable). It also expands each candidate: the face
+ * neighbours its rule spreads through, inside the world height and the seed zones.
+ * Back come the blocks to write and the neighbours, picked up by the spread cycle with
+ * {@link #poll()}; the main thread only checks them against the visited bitmaps.
+ *
+ * The container/unbreakable tables are built once on the main thread (container
+ * detection needs a block state) and are read-only afterwards, so workers never touch
+ * the Bukkit API beyond the snapshots.
+ */
+final class InfectionClassifier {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private static final byte CONTAINER = 1;
+    private static final byte UNBREAKABLE = 2;
+
+    /**
+     * Classified batch: {@code neighbours} are the packed positions the spread continues
+     * to from {@code candidates} (not yet checked against visited); {@code writes} are
+     * the packed positions to convert.
+     */
+    record Result(UUID worldId, long[] candidates, long[] neighbours, long[] writes) {
+    }
+
+    private final byte[] flags = new byte[MATERIALS.length];
+
+    private final int threads;
+    private final ExecutorService pool;   // null = classify on the main thread
+    private final ConcurrentLinkedQueue<Result> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    InfectionClassifier(int threads) {
+        for (Material m : MATERIALS) {
+            if (m.isLegacy() || !m.isBlock()) continue;
+
+            byte f = 0;
+            try {
+                if (m.createBlockData().createBlockState() instanceof Container) f |= CONTAINER;
+            } catch (Throwable ignored) {
+                // Not placeable as a block state
+            }
+            if (m.getHardness() < 0) f |= UNBREAKABLE;
+            flags[m.ordinal()] = f;
+        }
+
+        this.threads = threads;
+        if (threads <= 0) {
+            this.pool = null;
+            return;
+        }
+
+        AtomicInteger n = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "EntityCore-Infection-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    boolean isAsync() {
+        return pool != null;
+    }
+
+    /**
+     * True while enough batches are queued to keep every worker busy; the spread
+     * cycle then skips submitting so queued snapshots stay bounded.
+     */
+    boolean isSaturated() {
+        return inFlight.get() >= threads * 2;
+    }
+
+    boolean isContainer(Material m) {
+        return (flags[m.ordinal()] & CONTAINER) != 0;
+    }
+
+    boolean isUnbreakable(Material m) {
+        return (flags[m.ordinal()] & UNBREAKABLE) != 0;
+    }
+
+    /**
+     * True if a block of {@code type} reached by the spread converts (rolls its chance).
+     */
+    static boolean converts(Material type, InfectionRules rules) {
+        if (rules.target(type) == null) return false;
+        float chance = rules.chance(type);
+        return chance >= 1f || ThreadLocalRandom.current().nextFloat() < chance;
+    }
+
+    /**
+     * Classify and expand {@code positions} on the pool. Every position must lie in a
+     * chunk of {@code snapshots} (keyed like Chunk#getChunkKey). Neighbours outside
+     * {@code minY..maxY} or outside every zone ({@code zones} null = unbounded) are left
+     * out. None of the arguments may be modified by the caller afterwards.
+     */
+    void submit(UUID worldId, LongObjectMap<ChunkSnapshot> snapshots, long[] positions, InfectionRules rules,
+                int minY, int maxY, InfectionZone[] zones) {
+        inFlight.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                long[] writes = new long[positions.length];
+                long[] neighbours = new long[positions.length * InfectionService.DIRS.length];
+                int n = 0;
+                int m = 0;
+
+                for (int i = 0; i < positions.length; i++) {
+                    long pos = positions[i];
+                    int x = PackedPos.unpackX(pos);
+                    int y = PackedPos.unpackY(pos);
+                    int z = PackedPos.unpackZ(pos);
+
+                    ChunkSnapshot snap = snapshots.get(PackedPos.chunkKey(x >> 4, z >> 4));
+                    int directions = InfectionRules.ALL_DIRECTIONS;
+                    if (snap != null) {
+                        Material type = snap.getBlockType(x & 15, y, z & 15);
+                        directions = rules.directions(type);
+                        if (converts(type, rules)) writes[n++] = pos;
+                    }
+
+                    for (int d = 0; d < InfectionService.DIRS.length; d++) {
+                        if ((directions & (1 << d)) == 0) continue;
+
+                        int[] dir = InfectionService.DIRS[d];
+                        int nx = x + dir[0];
+                        int ny = y + dir[1];
+                        int nz = z + dir[2];
+                        if (ny < minY || ny > maxY) continue;
+                        if (zones != null && !InfectionZone.containsAny(zones, nx, ny, nz)) continue;
+
+                        neighbours[m++] = PackedPos.pack(nx, ny, nz);
+                    }
+                }
+
+                results.add(new Result(worldId, positions,
+                        Arrays.copyOf(neighbours, m), Arrays.copyOf(writes, n)));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Next finished batch, or null.
+     */
+    Result poll() {
+        return results.poll();
+    }
+
+    /**
+     * Stop the pool, giving queued batches up to {@code waitMs} to finish.
+     * Finished batches stay available through {@link #poll()}.
+     */
+    void shutdown(long waitMs) {
+        if (pool == null) return;
+
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(waitMs, TimeUnit.MILLISECONDS)) pool.shutdownNow();
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
@@ -45,8 +46,20 @@ public final class InfectionCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
             case "give" -> {
-                p.getInventory().addItem(InfectionSeedItem.create(plugin, config));
-                p.sendMessage(ChatColor.GREEN + "Given Infection Seed.");
+                String bounds = args.length > 1 ? bounds(args) : null;
+                if (args.length > 1) {
+                    try {
+                        InfectionZone.validateBounds(bounds);
+                    } catch (IllegalArgumentException ex) {
+                        p.sendMessage(ChatColor.RED + ex.getMessage());
+                        p.sendMessage(ChatColor.GRAY + "/infect give [radius <r> | cuboid <x1> <y1> <z1> <x2> <y2> <z2> | region <id>]");
+                        return true;
+                    }
+                }
+
+                p.getInventory().addItem(InfectionSeedItem.create(plugin, config, bounds));
+                p.sendMessage(ChatColor.GREEN + "Given Infection Seed"
+                        + (bounds == null ? "." : ChatColor.GRAY + " (bounds " + bounds + ")."));
                 return true;
             }
             case "reload" -> {
@@ -58,13 +71,22 @@ public final class InfectionCommand implements CommandExecutor, TabCompleter {
             default -> {
                 p.sendMessage(ChatColor.YELLOW + "Usage:");
                 p.sendMessage(ChatColor.GRAY + "/infect  " + ChatColor.DARK_GRAY + "(opens GUI)");
-                p.sendMessage(ChatColor.GRAY + "/infect give");
+                p.sendMessage(ChatColor.GRAY + "/infect give [radius <r> | cuboid <x1> <y1> <z1> <x2> <y2> <z2> | region <id>]");
                 p.sendMessage(ChatColor.GRAY + "/infect reload");
                 return true;
             }
         }
     }
 
+    /**
+     * "give radius 32" -> "radius:32", "give cuboid 1 2 3 4 5 6" -> "cuboid:1,2,3,4,5,6".
+     */
+    private static String bounds(String[] args) {
+        String type = args[1].toLowerCase(Locale.ROOT);
+        if (args.length < 3) return type + ":";
+        return type + ":" + String.join(",", Arrays.copyOfRange(args, 2, args.length));
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> out = new ArrayList<>();
@@ -72,6 +94,10 @@ public final class InfectionCommand implements CommandExecutor, TabCompleter {
             out.add("gui");
             out.add("give");
             out.add("reload");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("give")) {
+            out.add("radius");
+            out.add("cuboid");
+            out.add("region");
         }
         return out;
     }
@@ -4,6 +4,10 @@ import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 public final class InfectionConfig {
 
     private final JavaPlugin plugin;
@@ -12,7 +16,14 @@ public final class InfectionConfig {
     private boolean enabled;
     private int infectionsPerCycle;
     private int cycleTicks;
+    private int cycleBudgetMs; // 0 = no time limit, only infectionsPerCycle
     private long unloadDelayMs;
+    private int maxChunkLoads;
+    private int workerThreads; // 0 = classify on the main thread
+
+    // Journal (resume across restarts)
+    private boolean journalEnabled;
+    private int journalIntervalSeconds;
 
     // Filters
     private boolean infectAir; // user wants false, but keep configurable
@@ -21,6 +32,10 @@ public final class InfectionConfig {
     // Output material (user wants dirt)
     private Material infectionMaterial;
 
+    // Per-material transitions (compiled by InfectionRules)
+    private List<Map<?, ?>> rules;
+    private List<String> immune;
+
     // Poisonous dirt effect
     private boolean damageEnabled;
     private String damageEffect; // "POISON" or "WITHER" etc
@@ -45,7 +60,13 @@ public final class InfectionConfig {
 
         infectionsPerCycle = clamp(c.getInt("infection.infectionsPerCycle", 2000), 1, 50000);
         cycleTicks = clamp(c.getInt("infection.cycleTicks", 10), 1, 200);
+        cycleBudgetMs = clamp(c.getInt("infection.cycleBudgetMs", 0), 0, 50);
         unloadDelayMs = Math.max(0L, c.getLong("infection.unloadDelayMs", 5000L));
+        maxChunkLoads = clamp(c.getInt("infection.maxChunkLoads", 8), 1, 256);
+        workerThreads = clamp(c.getInt("infection.workerThreads", 2), 0, 16);
+
+        journalEnabled = c.getBoolean("infection.journal.enabled", true);
+        journalIntervalSeconds = clamp(c.getInt("infection.journal.intervalSeconds", 60), 5, 3600);
 
         infectAir = c.getBoolean("infection.infectAir", false);
         skipContainers = c.getBoolean("infection.skipContainers", true);
@@ -54,6 +75,9 @@ public final class InfectionConfig {
         Material m = Material.matchMaterial(matName == null ? "DIRT" : matName);
         infectionMaterial = (m != null && m.isBlock()) ? m : Material.DIRT;
 
+        rules = new ArrayList<>(c.getMapList("infection.rules"));
+        immune = new ArrayList<>(c.getStringList("infection.immune"));
+
         damageEnabled = c.getBoolean("infection.damage.enabled", true);
         damageEffect = c.getString("infection.damage.effect", "POISON");
         damageAmplifier = clamp(c.getInt("infection.damage.amplifier", 0), 0, 10);
@@ -74,12 +98,20 @@ public final class InfectionConfig {
 
         c.set("infection.infectionsPerCycle", infectionsPerCycle);
         c.set("infection.cycleTicks", cycleTicks);
+        c.set("infection.cycleBudgetMs", cycleBudgetMs);
         c.set("infection.unloadDelayMs", unloadDelayMs);
+        c.set("infection.maxChunkLoads", maxChunkLoads);
+        c.set("infection.workerThreads", workerThreads);
+
+        c.set("infection.journal.enabled", journalEnabled);
+        c.set("infection.journal.intervalSeconds", journalIntervalSeconds);
 
         c.set("infection.infectAir", infectAir);
         c.set("infection.skipContainers", skipContainers);
 
         c.set("infection.material", infectionMaterial.name());
+        c.set("infection.rules", rules);
+        c.set("infection.immune", immune);
 
         c.set("infection.damage.enabled", damageEnabled);
         c.set("infection.damage.effect", damageEffect);
@@ -107,9 +139,24 @@ public final class InfectionConfig {
     public int getCycleTicks() { return cycleTicks; }
     public void setCycleTicks(int v) { this.cycleTicks = clamp(v, 1, 200); }
 
+    public int getCycleBudgetMs() { return cycleBudgetMs; }
+    public void setCycleBudgetMs(int v) { this.cycleBudgetMs = clamp(v, 0, 50); }
+
     public long getUnloadDelayMs() { return unloadDelayMs; }
     public void setUnloadDelayMs(long unloadDelayMs) { this.unloadDelayMs = Math.max(0L, unloadDelayMs); }
 
+    public int getMaxChunkLoads() { return maxChunkLoads; }
+    public void setMaxChunkLoads(int v) { this.maxChunkLoads = clamp(v, 1, 256); }
+
+    public int getWorkerThreads() { return workerThreads; }
+    public void setWorkerThreads(int v) { this.workerThreads = clamp(v, 0, 16); }
+
+    public boolean isJournalEnabled() { return journalEnabled; }
+    public void setJournalEnabled(boolean journalEnabled) { this.journalEnabled = journalEnabled; }
+
+    public int getJournalIntervalSeconds() { return journalIntervalSeconds; }
+    public void setJournalIntervalSeconds(int v) { this.journalIntervalSeconds = clamp(v, 5, 3600); }
+
     public boolean isInfectAir() { return infectAir; }
     public void setInfectAir(boolean infectAir) { this.infectAir = infectAir; }
 
@@ -119,6 +166,9 @@ public final class InfectionConfig {
     public Material getInfectionMaterial() { return infectionMaterial; }
     public void setInfectionMaterial(Material m) { this.infectionMaterial = (m != null && m.isBlock()) ? m : Material.DIRT; }
 
+    public List<Map<?, ?>> getRules() { return rules; }
+    public List<String> getImmune() { return immune; }
+
     public boolean isDamageEnabled() { return damageEnabled; }
     public void setDamageEnabled(boolean damageEnabled) { this.damageEnabled = damageEnabled; }
 
@@ -0,0 +1,338 @@
+package com.entitycore.modules.infection;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary snapshot of the infection state (infection.journal in the data folder), so a
+ * running infection survives restarts.
+ *
+ * The service captures a {@link WorldState} per world on the main thread (plain array
+ * copies; visited bitmaps only for sections changed since the previous capture);
+ * encoding and writing happen on a background thread. The encoder streams
+ * through a FileChannel into a temp file, which then replaces the journal atomically,
+ * so a crash mid-write keeps the previous snapshot.
+ *
+ * Layout (version 2). Sets are sorted, and sets and sequences are stored as zigzag
+ * varlong deltas between consecutive entries:
+ *   int     magic "INFJ"
+ *   byte    version
+ *   varint  world count
+ *   per world:
+ *     long, long        world UUID
+ *     delta set         infected chunk keys
+ *     delta set         done chunk keys
+ *     varint            active chunk count
+ *     per active chunk: varlong delta key, varint section count,
+ *                       per section: varint index, 64 raw longs (visited bitmap)
+ *     delta sequence    frontier positions in queue order (packed, includes parked
+ *                       entries), so a resumed infection keeps its BFS order
+ *     varint            zone count + 1 (0 = unbounded), then per zone:
+ *                       varint length, UTF-8 spec (InfectionZone#toString)
+ */
+final class InfectionJournal {
+
+    private static final int MAGIC = 0x494E464A; // "INFJ"
+    private static final byte VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final JavaPlugin plugin;
+    private final Path file;
+    private final Path tmp;
+
+    // Background writes and the final synchronous write never interleave
+    private final Object writeLock = new Object();
+    private long lastWrittenSeq = -1;
+
+    InfectionJournal(JavaPlugin plugin) {
+        this.plugin = plugin;
+        File f = new File(plugin.getDataFolder(), "infection.journal");
+        this.file = f.toPath();
+        this.tmp = new File(plugin.getDataFolder(), "infection.journal.tmp").toPath();
+    }
+
+    /**
+     * State of one world. All arrays are private copies owned by the snapshot.
+     */
+    record WorldState(UUID worldId, long[] infectedChunks, long[] doneChunks,
+                      long[] activeChunks, long[][][] activeSections, long[] frontier,
+                      String[] zones) {
+    }
+
+    /* ===============================================================
+       WRITE
+       =============================================================== */
+
+    /**
+     * Write a snapshot taken as number {@code seq}. A snapshot older than the last one
+     * written is skipped, so a slow background write cannot overwrite the final one.
+     */
+    void write(long seq, List<WorldState> worlds) {
+        synchronized (writeLock) {
+            if (seq <= lastWrittenSeq) return;
+            lastWrittenSeq = seq;
+
+            try {
+                Files.createDirectories(file.getParent());
+
+                try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    Out out = new Out(ch);
+                    out.ensure(5);
+                    out.buf.putInt(MAGIC);
+                    out.buf.put(VERSION);
+                    out.varLong(worlds.size());
+
+                    for (WorldState w : worlds) {
+                        out.ensure(16);
+                        out.buf.putLong(w.worldId().getMostSignificantBits());
+                        out.buf.putLong(w.worldId().getLeastSignificantBits());
+
+                        out.deltaSet(w.infectedChunks());
+                        out.deltaSet(w.doneChunks());
+                        writeActive(out, w.activeChunks(), w.activeSections());
+                        out.deltas(w.frontier());
+                        writeZones(out, w.zones());
+                    }
+
+                    out.flush();
+                    ch.force(false);
+                }
+
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().severe("[Infection] Failed to write infection.journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void writeActive(Out out, long[] keys, long[][][] sections) throws IOException {
+        // Keys come from a hash table: sort indexes by key for delta encoding
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        out.varLong(keys.length);
+        long prev = 0;
+        for (int i : order) {
+            out.varLong(zigzag(keys[i] - prev));
+            prev = keys[i];
+
+            long[][] secs = sections[i];
+            int present = 0;
+            for (long[] s : secs) if (s != null) present++;
+            out.varLong(present);
+
+            for (int s = 0; s < secs.length; s++) {
+                if (secs[s] == null) continue;
+                out.varLong(s);
+                out.ensure(64 * 8);
+                for (long bits : secs[s]) out.buf.putLong(bits);
+            }
+        }
+    }
+
+    private static void writeZones(Out out, String[] zones) throws IOException {
+        if (zones == null) {
+            out.varLong(0);
+            return;
+        }
+        out.varLong(zones.length + 1L);
+        for (String z : zones) {
+            byte[] utf = z.getBytes(StandardCharsets.UTF_8);
+            out.varLong(utf.length);
+            out.bytes(utf);
+        }
+    }
+
+    /* ===============================================================
+       READ
+       =============================================================== */
+
+    /**
+     * Returns an empty list if there is no journal or it is unreadable.
+     */
+    List<WorldState> read() {
+        List<WorldState> out = new ArrayList<>();
+        if (!Files.isRegularFile(file)) return out;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("journal too large");
+
+            ByteBuffer in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining() && ch.read(in) >= 0) {
+                // keep reading
+            }
+            in.flip();
+
+            byte version = in.remaining() < 5 || in.getInt() != MAGIC ? 0 : in.get();
+            if (version != VERSION) {
+                plugin.getLogger().warning("[Infection] Ignoring infection.journal (unknown format).");
+                return out;
+            }
+
+            int worlds = (int) readVarLong(in);
+            for (int w = 0; w < worlds; w++) {
+                UUID id = new UUID(in.getLong(), in.getLong());
+
+                long[] infected = readDeltas(in);
+                long[] done = readDeltas(in);
+
+                int active = (int) readVarLong(in);
+                long[] keys = new long[active];
+                long[][][] sections = new long[active][][];
+                long prev = 0;
+                for (int i = 0; i < active; i++) {
+                    prev += unzigzag(readVarLong(in));
+                    keys[i] = prev;
+
+                    int present = (int) readVarLong(in);
+                    int[] index = new int[present];
+                    long[][] bits = new long[present][];
+                    int max = -1;
+                    for (int p = 0; p < present; p++) {
+                        index[p] = (int) readVarLong(in);
+                        bits[p] = new long[64];
+                        for (int j = 0; j < 64; j++) bits[p][j] = in.getLong();
+                        max = Math.max(max, index[p]);
+                    }
+
+                    // Sparse on disk, indexed by section in memory
+                    long[][] secs = new long[max + 1][];
+                    for (int p = 0; p < present; p++) secs[index[p]] = bits[p];
+                    sections[i] = secs;
+                }
+
+                long[] frontier = readDeltas(in);
+                String[] zones = readZones(in);
+                out.add(new WorldState(id, infected, done, keys, sections, frontier, zones));
+            }
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            plugin.getLogger().severe("[Infection] Failed to read infection.journal: " + e);
+            out.clear();
+        }
+        return out;
+    }
+
+    private static long[] readDeltas(ByteBuffer in) {
+        int n = (int) readVarLong(in);
+        long[] out = new long[n];
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            prev += unzigzag(readVarLong(in));
+            out[i] = prev;
+        }
+        return out;
+    }
+
+    private static String[] readZones(ByteBuffer in) {
+        int n = (int) readVarLong(in);
+        if (n == 0) return null;
+
+        String[] zones = new String[n - 1];
+        for (int i = 0; i < zones.length; i++) {
+            byte[] utf = new byte[(int) readVarLong(in)];
+            in.get(utf);
+            zones[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        return zones;
+    }
+
+    /* ===============================================================
+       ENCODING
+       =============================================================== */
+
+    /**
+     * Fixed-size buffer drained into the channel as it fills.
+     */
+    private static final class Out {
+        private final FileChannel ch;
+        final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Out(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        void varLong(long v) throws IOException {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+        }
+
+        void bytes(byte[] b) throws IOException {
+            for (int off = 0; off < b.length; ) {
+                if (!buf.hasRemaining()) flush();
+                int n = Math.min(buf.remaining(), b.length - off);
+                buf.put(b, off, n);
+                off += n;
+            }
+        }
+
+        /**
+         * Sorts {@code values} in place (snapshot arrays are private copies).
+         */
+        void deltaSet(long[] values) throws IOException {
+            Arrays.sort(values);
+            deltas(values);
+        }
+
+        /**
+         * {@code values} in their given order.
+         */
+        void deltas(long[] values) throws IOException {
+            varLong(values.length);
+            long prev = 0;
+            for (long v : values) {
+                varLong(zigzag(v - prev));
+                prev = v;
+            }
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new BufferUnderflowException();
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -10,4 +10,8 @@ public final class InfectionKeys {
     public static NamespacedKey seedKey(JavaPlugin plugin) {
         return new NamespacedKey(plugin, "infection_seed");
     }
+
+    public static NamespacedKey boundsKey(JavaPlugin plugin) {
+        return new NamespacedKey(plugin, "infection_bounds");
+    }
 }
@@ -1,11 +1,21 @@
 package com.entitycore.modules.infection;
 
 import org.bukkit.ChatColor;
+import org.bukkit.Location;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -37,8 +47,23 @@ public final class InfectionListener implements Listener {
         Block clicked = e.getClickedBlock();
         if (clicked == null) return;
 
+        // Optional spread limit carried by the seed
+        String bounds = InfectionSeedItem.bounds(plugin, item);
+        InfectionZone zone = null;
+        if (bounds != null) {
+            try {
+                zone = InfectionZone.resolve(bounds, clicked);
+            } catch (IllegalArgumentException ex) {
+                e.getPlayer().sendMessage(ChatColor.RED + "Invalid seed bounds: " + ex.getMessage());
+                return;
+            }
+        }
+
         // Seed at clicked block
-        service.seedAt(clicked);
+        if (!service.seedAt(clicked, zone)) {
+            e.getPlayer().sendMessage(ChatColor.RED + "That block is outside the seed's bounds (" + bounds + ").");
+            return;
+        }
 
         // Enable spread (global)
         if (!config.isEnabled()) {
@@ -48,6 +73,67 @@ public final class InfectionListener implements Listener {
 
         service.ensureTasksRunning();
 
-        e.getPlayer().sendMessage(ChatColor.GREEN + "Infection seeded. Global spread is now ENABLED.");
+        e.getPlayer().sendMessage(ChatColor.GREEN + "Infection seeded"
+                + (zone == null ? "" : ChatColor.GRAY + " (bounds " + bounds + ")" + ChatColor.GREEN)
+                + ". Global spread is now ENABLED.");
+    }
+
+    /* ===============================================================
+       PLAYER INDEX (damage task targets)
+       =============================================================== */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        service.trackPlayer(e.getPlayer(), e.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        service.untrackPlayer(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent e) {
+        if (sameChunk(e.getFrom(), e.getTo())) return;
+
+        service.trackPlayer(e.getPlayer(), e.getTo());
+    }
+
+    // Riding players get no PlayerMoveEvent
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent e) {
+        if (sameChunk(e.getFrom(), e.getTo())) return;
+
+        trackPassengers(e.getVehicle(), e.getTo());
+    }
+
+    private void trackPassengers(Entity vehicle, Location to) {
+        for (Entity passenger : vehicle.getPassengers()) {
+            if (passenger instanceof Player p) service.trackPlayer(p, to);
+            trackPassengers(passenger, to);
+        }
+    }
+
+    // Most moves stay in the same chunk: skip without touching the index
+    private static boolean sameChunk(Location from, Location to) {
+        return (from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent e) {
+        service.trackPlayer(e.getPlayer(), e.getTo());
+    }
+
+    // Portal travel fires PlayerPortalEvent, which onTeleport does not see
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent e) {
+        service.trackPlayer(e.getPlayer(), e.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent e) {
+        service.trackPlayer(e.getPlayer(), e.getRespawnLocation());
     }
 }
@@ -31,6 +31,7 @@ public final class InfectionModule implements Module {
         this.config.reload();
 
         this.service = new InfectionService(plugin, config);
+        this.service.loadJournal();
 
         this.command = new InfectionCommand(plugin, config, service);
         this.listener = new InfectionListener(plugin, config, service);
@@ -45,6 +46,8 @@ public final class InfectionModule implements Module {
 
         plugin.getServer().getPluginManager().registerEvents(listener, plugin);
 
+        // Players already online (plugin reload) are not seen by the join event
+        service.trackOnlinePlayers();
         service.ensureTasksRunning();
 
         plugin.getLogger().info("[Infection] Enabled.");
@@ -0,0 +1,85 @@
+package com.entitycore.modules.infection;
+
+import com.entitycore.util.LongObjectMap;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Which chunk every online player is in, and which of them stand in infected chunks.
+ *
+ * Kept up to date from join/quit/move/vehicle move/teleport/world change/respawn events
+ * (only chunk crossings do any work) and from the spread when a chunk becomes infected,
+ * so the damage task walks the exposed players only.
+ */
+final class InfectionPlayerIndex {
+
+    private record Position(UUID worldId, long chunk) {
+    }
+
+    private final Map<UUID, Position> positions = new HashMap<>();
+    private final Map<UUID, LongObjectMap<List<Player>>> occupants = new HashMap<>();
+    private final Set<Player> exposed = new LinkedHashSet<>();
+
+    /**
+     * Players currently standing in an infected chunk.
+     */
+    Collection<Player> exposed() {
+        return exposed;
+    }
+
+    boolean isTracked(Player p, UUID worldId, long chunk) {
+        Position cur = positions.get(p.getUniqueId());
+        return cur != null && cur.chunk() == chunk && cur.worldId().equals(worldId);
+    }
+
+    /**
+     * Record {@code p} in the given chunk. {@code infected} is whether that chunk is infected.
+     */
+    void move(Player p, UUID worldId, long chunk, boolean infected) {
+        remove(p);
+
+        positions.put(p.getUniqueId(), new Position(worldId, chunk));
+        LongObjectMap<List<Player>> chunks = occupants.computeIfAbsent(worldId, id -> new LongObjectMap<>());
+        List<Player> list = chunks.get(chunk);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            chunks.put(chunk, list);
+        }
+        list.add(p);
+
+        if (infected) exposed.add(p);
+    }
+
+    void remove(Player p) {
+        Position old = positions.remove(p.getUniqueId());
+        exposed.remove(p);
+        if (old == null) return;
+
+        LongObjectMap<List<Player>> chunks = occupants.get(old.worldId());
+        if (chunks == null) return;
+
+        List<Player> list = chunks.get(old.chunk());
+        if (list == null) return;
+
+        list.remove(p);
+        if (list.isEmpty()) chunks.remove(old.chunk());
+    }
+
+    /**
+     * A chunk just became infected: everyone in it is now exposed.
+     */
+    void chunkInfected(UUID worldId, long chunk) {
+        LongObjectMap<List<Player>> chunks = occupants.get(worldId);
+        if (chunks == null) return;
+
+        List<Player> list = chunks.get(chunk);
+        if (list != null) exposed.addAll(list);
+    }
+
+    void clear() {
+        positions.clear();
+        occupants.clear();
+        exposed.clear();
+    }
+}
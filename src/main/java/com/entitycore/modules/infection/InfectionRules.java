@@ -0,0 +1,170 @@
+package com.entitycore.modules.infection;
+
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Infection transitions compiled to Material-ordinal tables.
+ *
+ * Config (all optional; without rules every block turns into infection.material):
+ *   infection.rules:
+ *     - { from: GRASS_BLOCK, to: MYCELIUM, chance: 1.0, directions: [UP, NORTH, SOUTH, EAST, WEST] }
+ *     - { from: STONE, to: NETHERRACK, chance: 0.5 }
+ *   infection.immune: [OBSIDIAN, CRYING_OBSIDIAN]
+ *
+ * "directions" are the faces the spread continues through out of a block of that
+ * material (default: all six). Immune blocks never convert and stop the spread. Any
+ * rule target counts as infected, so it is never converted again.
+ *
+ * Tables are immutable once compiled and safe to read from worker threads.
+ */
+final class InfectionRules {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    // Bit order matches InfectionService.DIRS
+    private static final BlockFace[] FACES = {
+            BlockFace.EAST, BlockFace.WEST,
+            BlockFace.UP, BlockFace.DOWN,
+            BlockFace.SOUTH, BlockFace.NORTH
+    };
+
+    static final int ALL_DIRECTIONS = 0x3F;
+
+    private final Material[] targets = new Material[MATERIALS.length];       // null = never converts
+    private final BlockData[] targetData = new BlockData[MATERIALS.length];
+    private final float[] chance = new float[MATERIALS.length];
+    private final byte[] directions = new byte[MATERIALS.length];
+    private final boolean[] infected = new boolean[MATERIALS.length];
+
+    private InfectionRules() {
+    }
+
+    /**
+     * Target material for a block of {@code source}, or null if it does not convert.
+     */
+    Material target(Material source) {
+        return targets[source.ordinal()];
+    }
+
+    /**
+     * Shared block data of the target (null if {@code source} does not convert).
+     */
+    BlockData targetData(Material source) {
+        return targetData[source.ordinal()];
+    }
+
+    /**
+     * Chance in [0, 1] that a block of {@code source} converts when reached.
+     */
+    float chance(Material source) {
+        return chance[source.ordinal()];
+    }
+
+    /**
+     * Face bitmask (InfectionService.DIRS order) the spread continues through.
+     */
+    int directions(Material source) {
+        return directions[source.ordinal()];
+    }
+
+    /**
+     * True if {@code m} is the result of some transition (counts as infected ground).
+     */
+    boolean isInfected(Material m) {
+        return infected[m.ordinal()];
+    }
+
+    static InfectionRules compile(InfectionConfig config, InfectionClassifier classifier, Logger log) {
+        InfectionRules r = new InfectionRules();
+
+        Material fallback = config.getInfectionMaterial();
+        for (int o = 0; o < MATERIALS.length; o++) {
+            r.targets[o] = fallback;
+            r.chance[o] = 1f;
+            r.directions[o] = (byte) ALL_DIRECTIONS;
+        }
+
+        for (Map<?, ?> raw : config.getRules()) {
+            Material from = material(raw.get("from"));
+            Material to = material(raw.get("to"));
+            if (from == null || to == null || !to.isBlock()) {
+                log.warning("[Infection] Ignoring rule " + raw + " (unknown from/to block).");
+                continue;
+            }
+
+            int o = from.ordinal();
+            r.targets[o] = to;
+            r.chance[o] = (float) Math.max(0.0, Math.min(1.0, number(raw.get("chance"), 1.0)));
+            if (raw.get("directions") instanceof List<?> dirs) r.directions[o] = (byte) faceMask(dirs, log);
+        }
+
+        // Every target is infected ground: never converted again
+        for (Material t : r.targets) {
+            if (t != null) r.infected[t.ordinal()] = true;
+        }
+
+        for (String name : config.getImmune()) {
+            Material m = material(name);
+            if (m == null) {
+                log.warning("[Infection] Ignoring unknown immune material " + name + ".");
+                continue;
+            }
+            r.targets[m.ordinal()] = null;
+            r.directions[m.ordinal()] = 0;
+        }
+
+        for (Material m : MATERIALS) {
+            int o = m.ordinal();
+            if (r.targets[o] == null) continue;
+
+            boolean blocked = m.isLegacy() || !m.isBlock()
+                    || r.infected[o]
+                    || (m == Material.AIR && !config.isInfectAir())
+                    || classifier.isUnbreakable(m)
+                    || (config.isSkipContainers() && classifier.isContainer(m));
+            if (blocked) {
+                r.targets[o] = null;
+                continue;
+            }
+            r.targetData[o] = r.targets[o].createBlockData();
+        }
+
+        return r;
+    }
+
+    private static int faceMask(List<?> names, Logger log) {
+        int mask = 0;
+        for (Object n : names) {
+            boolean found = false;
+            for (int i = 0; i < FACES.length; i++) {
+                if (FACES[i].name().equalsIgnoreCase(String.valueOf(n))) {
+                    mask |= 1 << i;
+                    found = true;
+                }
+            }
+            if (!found) log.warning("[Infection] Ignoring unknown direction " + n + " (use UP, DOWN, NORTH, SOUTH, EAST, WEST).");
+        }
+        return mask;
+    }
+
+    private static Material material(Object name) {
+        return name == null ? null : Material.matchMaterial(String.valueOf(name).toUpperCase(Locale.ROOT));
+    }
+
+    private static double number(Object v, double def) {
+        if (v instanceof Number n) return n.doubleValue();
+        if (v == null) return def;
+        try {
+            return Double.parseDouble(String.valueOf(v));
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -9,11 +9,20 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.List;
+
 public final class InfectionSeedItem {
 
     private InfectionSeedItem() {}
 
     public static ItemStack create(JavaPlugin plugin, InfectionConfig config) {
+        return create(plugin, config, null);
+    }
+
+    /**
+     * @param bounds spread limit (see {@link InfectionZone}), or null for unbounded
+     */
+    public static ItemStack create(JavaPlugin plugin, InfectionConfig config, String bounds) {
         ItemStack item = new ItemStack(Material.DIRT, 1);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
@@ -27,6 +36,11 @@ public final class InfectionSeedItem {
             NamespacedKey key = InfectionKeys.seedKey(plugin);
             meta.getPersistentDataContainer().set(key, PersistentDataType.BYTE, (byte) 1);
 
+            if (bounds != null) {
+                meta.getPersistentDataContainer().set(InfectionKeys.boundsKey(plugin), PersistentDataType.STRING, bounds);
+                meta.setLore(List.of("§7Bounds: §f" + bounds));
+            }
+
             item.setItemMeta(meta);
         }
         return item;
@@ -41,4 +55,15 @@ public final class InfectionSeedItem {
         Byte v = meta.getPersistentDataContainer().get(InfectionKeys.seedKey(plugin), PersistentDataType.BYTE);
         return v != null && v == (byte) 1;
     }
+
+    /**
+     * Spread limit stored on a seed, or null if it spreads unbounded.
+     */
+    public static String bounds(JavaPlugin plugin, ItemStack item) {
+        if (item == null) return null;
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return null;
+
+        return meta.getPersistentDataContainer().get(InfectionKeys.boundsKey(plugin), PersistentDataType.STRING);
+    }
 }
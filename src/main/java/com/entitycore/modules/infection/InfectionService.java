@@ -1,9 +1,10 @@
 package com.entitycore.modules.infection;
 
+import com.entitycore.util.LongHashSet;
+import com.entitycore.util.LongObjectMap;
 import org.bukkit.*;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockState;
-import org.bukkit.block.Container;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
@@ -12,18 +13,32 @@ import org.bukkit.scheduler.BukkitTask;
 
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.entitycore.util.PackedPos.chunkKey;
+import static com.entitycore.util.PackedPos.chunkKeyOf;
+import static com.entitycore.util.PackedPos.pack;
+import static com.entitycore.util.PackedPos.unpackX;
+import static com.entitycore.util.PackedPos.unpackY;
+import static com.entitycore.util.PackedPos.unpackZ;
 
 public final class InfectionService {
 
     private final JavaPlugin plugin;
     private final InfectionConfig config;
 
-    // BFS frontier
-    private final ArrayDeque<BlockKey> frontier = new ArrayDeque<>();
-    private final HashSet<BlockKey> seen = new HashSet<>();
+    // Face order of the direction masks (InfectionRules), also used by the classifier workers
+    static final int[][] DIRS = {
+            { 1, 0, 0}, {-1, 0, 0},
+            { 0, 1, 0}, { 0,-1, 0},
+            { 0, 0, 1}, { 0, 0,-1}
+    };
+
+    // BFS state per world: frontier, per-chunk visited bitmaps and "chunk done" markers
+    private final Map<UUID, WorldSpread> worlds = new LinkedHashMap<>();
 
-    // Frontier count per chunk so we can unload when a chunk has no queued work
-    private final HashMap<ChunkKey, Integer> chunkFrontierCount = new HashMap<>();
+    // World the next spread cycle starts with (rotates, so no world always goes first)
+    private int worldCursor;
 
     // Track chunks loaded by this plugin
     private final HashSet<ChunkKey> pluginLoadedChunks = new HashSet<>();
@@ -32,17 +47,58 @@ public final class InfectionService {
     // Track chunks that have been infected (used for poison dirt effect)
     private final HashSet<ChunkKey> infectedChunks = new HashSet<>();
 
+    // Players by chunk, and those standing in infected chunks (damage task targets)
+    private final InfectionPlayerIndex players = new InfectionPlayerIndex();
+
+    // Damage effect, rebuilt only when its config values change
+    private PotionEffect damageEffect;
+    private String damageEffectName;
+    private int damageEffectDuration;
+    private int damageEffectAmplifier;
+
+    // Conversions of the running cycle grouped by chunk section, written at the end of each world's pass
+    private final LongObjectMap<LongRingQueue> pendingWrites = new LongObjectMap<>();
+
+    // Convertibility checks, on worker threads when infection.workerThreads > 0
+    private final InfectionClassifier classifier;
+
+    // Compiled transition tables (recompiled on reload / restartSpreadTask)
+    private InfectionRules rules;
+
+    // Share of classified candidates that converted (moving average), sizes pipeline batches
+    private double conversionRatio = 1.0;
+
+    // Measured spread rate (moving average), shown in the admin GUI
+    private double blocksPerMs;
+
+    // Async chunk loads requested by the wavefront and not yet completed (all worlds)
+    private int chunkLoadsInFlight;
+
+    // Journal: periodic snapshots written off-thread; dirty = state changed since the last one
+    private final InfectionJournal journal;
+    private final AtomicBoolean journalWriting = new AtomicBoolean();
+    private long journalSeq;
+    private boolean journalDirty;
+
+    // Journal entries for worlds not loaded at startup, carried over unchanged
+    private final List<InfectionJournal.WorldState> unresolvedJournal = new ArrayList<>();
+
     private BukkitTask spreadTask;
     private BukkitTask damageTask;
+    private BukkitTask journalTask;
 
     public InfectionService(JavaPlugin plugin, InfectionConfig config) {
         this.plugin = plugin;
         this.config = config;
+        this.journal = new InfectionJournal(plugin);
+        this.classifier = new InfectionClassifier(config.getWorkerThreads());
+        this.rules = InfectionRules.compile(config, classifier, plugin.getLogger());
     }
 
     public void ensureTasksRunning() {
         ensureSpreadTaskRunning();
         ensureDamageTaskRunning();
+        ensureJournalTaskRunning();
     }
 
     public void shutdown() {
@@ -54,17 +110,40 @@ public final class InfectionService {
             damageTask.cancel();
             damageTask = null;
         }
+        if (journalTask != null) {
+            journalTask.cancel();
+            journalTask = null;
+        }
+
+        // Let queued batches finish and land before the final snapshot
+        classifier.shutdown(2000L);
+        applyClassified();
+
+        // Final snapshot on the calling thread: async tasks do not outlive the plugin
+        if (config.isJournalEnabled() && journalDirty) {
+            journal.write(++journalSeq, captureJournal());
+            journalDirty = false;
+        }
 
-        frontier.clear();
-        seen.clear();
-        chunkFrontierCount.clear();
+        worlds.clear();
+        unresolvedJournal.clear();
         pluginLoadedChunks.clear();
         unloadAfterMs.clear();
         infectedChunks.clear();
+        players.clear();
     }
 
     public int frontierSize() {
-        return frontier.size();
+        int total = 0;
+        for (WorldSpread ws : worlds.values()) total += ws.frontier.size() + ws.parkedCount + ws.classifyingCount;
+        return total;
+    }
+
+    /**
+     * Blocks converted per millisecond of spread-cycle time (moving average, 0 until measured).
+     */
+    public double blocksPerMs() {
+        return blocksPerMs;
     }
 
     public int infectedChunkCount() {
@@ -72,19 +151,56 @@ public final class InfectionService {
     }
 
     public void seedAt(Block seed) {
-        if (seed == null) return;
+        seedAt(seed, null);
+    }
+
+    /**
+     * Seed an infection limited to {@code zone} (null = unbounded). Returns false if the
+     * seed block lies outside the zone.
+     *
+     * Zones are per world: while a world's infection is still running, a new bounded seed
+     * widens its area to the union of the zones and an unbounded seed lifts the limit.
+     */
+    public boolean seedAt(Block seed, InfectionZone zone) {
+        if (seed == null) return false;
         World w = seed.getWorld();
-        if (w == null) return;
+        if (w == null) return false;
+        if (zone != null && !zone.contains(seed.getX(), seed.getY(), seed.getZ())) return false;
+
+        WorldSpread ws = spread(w);
+        boolean idle = ws.isIdle();
+        if (idle) {
+            // A new infection may sweep an area an earlier one already passed
+            ws.doneChunks.clear();
+        }
+        if (zone == null) {
+            ws.zones = null;
+        } else if (idle) {
+            ws.zones = new InfectionZone[]{zone};
+        } else if (ws.zones != null) {
+            // Replaced, never modified: classifier batches hold on to the array they got
+            InfectionZone[] widened = Arrays.copyOf(ws.zones, ws.zones.length + 1);
+            widened[widened.length - 1] = zone;
+            ws.zones = widened;
+        }
+
+        // A new seed reopens its own chunk, even if an earlier wave settled it
+        ws.doneChunks.remove(chunkKey(seed.getX() >> 4, seed.getZ() >> 4));
 
         // try to infect seed (respecting rules)
         if (tryInfect(seed)) {
-            infectedChunks.add(new ChunkKey(w.getUID(), seed.getX() >> 4, seed.getZ() >> 4));
+            markInfected(w.getUID(), seed.getX() >> 4, seed.getZ() >> 4);
         }
 
-        enqueue(seed);
+        enqueue(ws, seed.getX(), seed.getY(), seed.getZ());
+        journalDirty = true;
+        return true;
     }
 
     public void restartSpreadTask() {
+        // Config may have changed: recompile the transition tables
+        rules = InfectionRules.compile(config, classifier, plugin.getLogger());
+
         if (spreadTask != null) {
             spreadTask.cancel();
             spreadTask = null;
@@ -115,33 +231,20 @@ public final class InfectionService {
             try {
                 if (!config.isEnabled()) return;
                 if (!config.isDamageEnabled()) return;
-                if (infectedChunks.isEmpty()) return;
 
-                PotionEffectType type = PotionEffectType.getByName(config.getDamageEffect());
-                if (type == null) type = PotionEffectType.POISON;
+                // Only players standing in infected chunks (kept by the player index)
+                Collection<Player> exposed = players.exposed();
+                if (exposed.isEmpty()) return;
 
-                PotionEffect effect = new PotionEffect(
-                        type,
-                        config.getDamageDurationTicks(),
-                        config.getDamageAmplifier(),
-                        true,
-                        false,
-                        true
-                );
+                PotionEffect effect = damageEffect();
 
-                for (Player p : plugin.getServer().getOnlinePlayers()) {
+                for (Player p : exposed) {
                     Location loc = p.getLocation();
                     World w = loc.getWorld();
                     if (w == null) continue;
 
-                    int cx = loc.getBlockX() >> 4;
-                    int cz = loc.getBlockZ() >> 4;
-                    ChunkKey ck = new ChunkKey(w.getUID(), cx, cz);
-
-                    if (!infectedChunks.contains(ck)) continue;
-
                     Block under = w.getBlockAt(loc.getBlockX(), loc.getBlockY() - 1, loc.getBlockZ());
-                    if (under.getType() != config.getInfectionMaterial()) continue;
+                    if (!rules.isInfected(under.getType())) continue;
 
                     p.addPotionEffect(effect);
                 }
@@ -152,143 +255,716 @@ public final class InfectionService {
         }, 1L, config.getDamageIntervalTicks());
     }
 
+    private PotionEffect damageEffect() {
+        String name = config.getDamageEffect();
+        int duration = config.getDamageDurationTicks();
+        int amplifier = config.getDamageAmplifier();
+
+        if (damageEffect == null || !name.equals(damageEffectName)
+                || duration != damageEffectDuration || amplifier != damageEffectAmplifier) {
+            PotionEffectType type = PotionEffectType.getByName(name);
+            if (type == null) type = PotionEffectType.POISON;
+
+            damageEffect = new PotionEffect(type, duration, amplifier, true, false, true);
+            damageEffectName = name;
+            damageEffectDuration = duration;
+            damageEffectAmplifier = amplifier;
+        }
+        return damageEffect;
+    }
+
+    /* ===============================================================
+       PLAYER INDEX (damage targets)
+       =============================================================== */
+
+    /**
+     * Record where {@code p} is. Cheap when {@code to} is in the chunk already recorded.
+     */
+    public void trackPlayer(Player p, Location to) {
+        World w = to.getWorld();
+        if (w == null) {
+            players.remove(p);
+            return;
+        }
+
+        int cx = to.getBlockX() >> 4;
+        int cz = to.getBlockZ() >> 4;
+        long ck = chunkKey(cx, cz);
+        if (players.isTracked(p, w.getUID(), ck)) return;
+
+        players.move(p, w.getUID(), ck, infectedChunks.contains(new ChunkKey(w.getUID(), cx, cz)));
+    }
+
+    public void untrackPlayer(Player p) {
+        players.remove(p);
+    }
+
+    public void trackOnlinePlayers() {
+        for (Player p : plugin.getServer().getOnlinePlayers()) trackPlayer(p, p.getLocation());
+    }
+
+    private void markInfected(UUID worldId, int cx, int cz) {
+        if (infectedChunks.add(new ChunkKey(worldId, cx, cz))) {
+            players.chunkInfected(worldId, chunkKey(cx, cz));
+        }
+    }
+
     private void runSpreadCycle() {
         int budget = config.getInfectionsPerCycle();
-        int converted = 0;
+        InfectionRules rules = this.rules;
+        boolean pipelined = classifier.isAsync();
+
+        // Optional wall-clock budget: unprocessed frontier simply waits for the next cycle
+        long start = System.nanoTime();
+        long budgetNanos = config.getCycleBudgetMs() * 1_000_000L;
+        long deadline = budgetNanos > 0 ? start + budgetNanos : Long.MAX_VALUE;
+
+        // Pipelined: land the batches workers finished since the last cycle first
+        int converted = pipelined ? applyClassified() : 0;
 
         // Safety to prevent runaway loops if something weird happens
         int safety = 0;
         int safetyLimit = Math.max(10_000, budget * 20);
 
-        while (converted < budget && !frontier.isEmpty() && safety++ < safetyLimit) {
-            BlockKey key = frontier.pollFirst();
-            if (key == null) break;
+        // Pipelined: conversions are only known later, so size the batch from the measured ratio
+        int quota = pipelined ? candidateQuota(budget - converted, safetyLimit) : Integer.MAX_VALUE;
+        int polled = 0;
 
-            World world = Bukkit.getWorld(key.worldId);
+        // Every world gets a fair share of what is left, and whatever it leaves unused passes
+        // on to the next; the start rotates so rounding does not always favour one world
+        WorldSpread[] order = worlds.values().toArray(new WorldSpread[0]);
+        int first = order.length == 0 ? 0 : Math.floorMod(worldCursor++, order.length);
+
+        for (int w = 0; w < order.length && converted < budget && polled < quota; w++) {
+            WorldSpread ws = order[(first + w) % order.length];
+            int left = order.length - w;
+            int worldBudget = converted + Math.ceilDiv(budget - converted, left);
+            int worldQuota = quota == Integer.MAX_VALUE ? quota : polled + Math.ceilDiv(quota - polled, left);
+
+            World world = Bukkit.getWorld(ws.worldId);
             if (world == null) {
-                decrementFrontierCount(key);
+                // World gone: drop its whole wavefront at once
+                worlds.remove(ws.worldId);
                 continue;
             }
 
-            int cx = key.x >> 4;
-            int cz = key.z >> 4;
+            LongObjectMap<ChunkSnapshot> snapshots = pipelined ? new LongObjectMap<>() : null;
+            LongRingQueue candidates = pipelined ? new LongRingQueue() : null;
+
+            while (converted < worldBudget && polled < worldQuota && !ws.frontier.isEmpty() && safety++ < safetyLimit) {
+                // Clock check every 16 entries keeps nanoTime off the per-block path
+                if ((safety & 15) == 0 && System.nanoTime() >= deadline) break;
+
+                long pos = ws.frontier.pollFirst();
+                int x = unpackX(pos);
+                int y = unpackY(pos);
+                int z = unpackZ(pos);
 
-            ensureChunkLoaded(world, cx, cz);
+                // Unloaded terrain: park until its async load completes, never block the tick
+                if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                    park(ws, pos);
+                    continue;
+                }
+
+                if (pipelined) {
+                    // Expanded when its batch comes back; stays counted in its chunk until then
+                    long ck = chunkKey(x >> 4, z >> 4);
+                    if (!snapshots.containsKey(ck)) snapshots.put(ck, snapshot(ws, world, ck));
+                    candidates.addLast(pos);
+                    polled++;
+                    continue;
+                }
 
-            Block b = world.getBlockAt(key.x, key.y, key.z);
+                Material type = world.getBlockAt(x, y, z).getType();
+                if (InfectionClassifier.converts(type, rules)) {
+                    queueWrite(pos);
+                    converted++;
+                }
 
-            IntHolder holder = new IntHolder(converted);
-            spreadFrom(world, b, holder, budget);
-            converted = holder.value;
+                spreadFrom(ws, world, x, y, z, rules.directions(type));
 
-            decrementFrontierCount(key);
+                decrementFrontierCount(ws, pos);
+            }
+
+            if (!pipelined) {
+                flushWrites(ws, world);
+            } else if (!candidates.isEmpty()) {
+                long[] batch = candidates.toArray();
+                ws.classifying.add(batch);
+                ws.classifyingCount += batch.length;
+                classifier.submit(ws.worldId, snapshots, batch, rules, ws.minY, ws.maxY, ws.zones);
+            }
         }
+
+        if (safety > 0) journalDirty = true;
+        recordRate(converted, System.nanoTime() - start);
+
+        requestParkedChunks();
+        forgetDoneChunksWhenIdle();
     }
 
-    private void spreadFrom(World world, Block b, IntHolder converted, int budget) {
-        // 6-direction spread (faces)
-        int x = b.getX();
-        int y = b.getY();
-        int z = b.getZ();
+    /**
+     * A world whose wave has fully stopped keeps no done markers, so a later infection
+     * there can sweep the same area again.
+     */
+    private void forgetDoneChunksWhenIdle() {
+        for (WorldSpread ws : worlds.values()) {
+            if (ws.doneChunks.isEmpty() || !ws.isIdle()) continue;
+            ws.doneChunks.clear();
+            journalDirty = true;
+        }
+    }
 
+    /**
+     * Candidates to classify this cycle so that roughly {@code remaining} of them convert.
+     * Zero while the workers are still busy with earlier batches.
+     */
+    private int candidateQuota(int remaining, int safetyLimit) {
+        if (remaining <= 0 || classifier.isSaturated()) return 0;
+        return (int) Math.min(safetyLimit, Math.ceil(remaining / Math.max(conversionRatio, 0.05)));
+    }
+
+    /**
+     * Snapshot of a loaded chunk for one more classifier batch. Batches in flight share it
+     * until the spread writes to the chunk, it settles or it reloads; it is dropped once
+     * the last batch using it is back. Changes made by others in between are seen once
+     * the chunk is written (writes re-read the live type).
+     */
+    private ChunkSnapshot snapshot(WorldSpread ws, World world, long ck) {
+        SharedSnapshot shared = ws.snapshots.get(ck);
+        if (shared == null) {
+            shared = new SharedSnapshot();
+            ws.snapshots.put(ck, shared);
+        }
+        if (shared.snapshot == null) {
+            shared.snapshot = world.getChunkAt((int) ck, (int) (ck >> 32)).getChunkSnapshot(false, false, false);
+        }
+        shared.batches++;
+        return shared.snapshot;
+    }
+
+    /**
+     * A batch is back: release the snapshots of the chunks it touched.
+     */
+    private static void releaseSnapshots(WorldSpread ws, long[] batch) {
+        LongHashSet released = new LongHashSet();
+        for (long pos : batch) {
+            long ck = chunkKeyOf(pos);
+            if (!released.add(ck)) continue;
+
+            SharedSnapshot shared = ws.snapshots.get(ck);
+            if (shared != null && --shared.batches <= 0) ws.snapshots.remove(ck);
+        }
+    }
+
+    /**
+     * The chunk changed: batches still in flight keep their copy, the next one takes a
+     * fresh snapshot.
+     */
+    private static void invalidateSnapshot(WorldSpread ws, long ck) {
+        SharedSnapshot shared = ws.snapshots.get(ck);
+        if (shared != null) shared.snapshot = null;
+    }
+
+    /**
+     * Land every batch the workers have finished: mark and queue the neighbours they
+     * expanded, then write the conversions. Returns the number of blocks converted.
+     */
+    private int applyClassified() {
+        int applied = 0;
+
+        InfectionClassifier.Result r;
+        while ((r = classifier.poll()) != null) {
+            long[] candidates = r.candidates();
+            if (candidates.length > 0) {
+                conversionRatio = conversionRatio * 0.8 + (r.writes().length / (double) candidates.length) * 0.2;
+            }
+
+            WorldSpread ws = worlds.get(r.worldId());
+            World world = Bukkit.getWorld(r.worldId());
+            if (ws == null || world == null) continue;
+
+            ws.classifying.remove(candidates);
+            ws.classifyingCount -= candidates.length;
+            releaseSnapshots(ws, candidates);
+
+            // Workers already applied directions, height and zones; only the visited check is left
+            for (long pos : r.neighbours()) enqueueInBounds(ws, unpackX(pos), unpackY(pos), unpackZ(pos));
+            for (long pos : candidates) decrementFrontierCount(ws, pos);
+
+            for (long pos : r.writes()) queueWrite(pos);
+            applied += flushWrites(ws, world);
+        }
+        return applied;
+    }
+
+    private void recordRate(int converted, long elapsedNanos) {
+        if (converted <= 0 || elapsedNanos <= 0) return;
+
+        double sample = converted / (elapsedNanos / 1_000_000.0);
+        blocksPerMs = blocksPerMs == 0 ? sample : blocksPerMs * 0.8 + sample * 0.2;
+    }
+
+    /**
+     * Queue the face neighbours of (x, y, z) allowed by {@code directions} (bit i = DIRS[i]).
+     * Blocks are converted when polled, so neighbours in unloaded chunks need no block
+     * access here.
+     */
+    private void spreadFrom(WorldSpread ws, World world, int x, int y, int z, int directions) {
         int minY = world.getMinHeight();
         int maxY = world.getMaxHeight() - 1;
 
-        int[][] dirs = {
-                { 1, 0, 0}, {-1, 0, 0},
-                { 0, 1, 0}, { 0,-1, 0},
-                { 0, 0, 1}, { 0, 0,-1}
-        };
-
-        for (int[] d : dirs) {
-            if (converted.value >= budget) return;
+        for (int i = 0; i < DIRS.length; i++) {
+            if ((directions & (1 << i)) == 0) continue;
 
+            int[] d = DIRS[i];
             int nx = x + d[0];
             int ny = y + d[1];
             int nz = z + d[2];
 
             if (ny < minY || ny > maxY) continue;
 
-            int ncx = nx >> 4;
-            int ncz = nz >> 4;
+            // Continue BFS regardless of whether this block is convertible
+            enqueue(ws, nx, ny, nz);
+        }
+    }
+
+    /**
+     * Immediate single-block conversion (seeding). The spread cycle batches instead.
+     */
+    private boolean tryInfect(Block b) {
+        BlockData data = rules.targetData(b.getType());
+        if (data == null) return false;
+
+        try {
+            b.setBlockData(data, false);
+            return true;
+        } catch (Throwable ignored) {
+            // Bedrock, barriers, etc.
+            return false;
+        }
+    }
 
-            ensureChunkLoaded(world, ncx, ncz);
+    /* ===============================================================
+       BATCHED WRITES
+       =============================================================== */
 
-            Block nb = world.getBlockAt(nx, ny, nz);
+    private void queueWrite(long pos) {
+        // Section origin: packed position with the 4 low bits of x, y and z cleared
+        long section = pos & ~(0xFL << 38 | 0xFL << 12 | 0xFL);
 
-            // Continue BFS regardless of whether this block is convertible
-            enqueue(nb);
+        LongRingQueue batch = pendingWrites.get(section);
+        if (batch == null) {
+            batch = new LongRingQueue();
+            pendingWrites.put(section, batch);
+        }
+        batch.addLast(pos);
+    }
 
-            if (tryInfect(nb)) {
-                converted.value++;
-                infectedChunks.add(new ChunkKey(world.getUID(), ncx, ncz));
+    /**
+     * Apply the queued conversions section by section with shared BlockData and no
+     * physics. The server coalesces a tick's changes per section into one multi-block
+     * update and one lighting pass, so writing them back to back keeps that flush single.
+     * Returns the number of blocks written now (sections of unloaded chunks follow later).
+     */
+    private int flushWrites(WorldSpread ws, World world) {
+        if (pendingWrites.isEmpty()) return 0;
+
+        InfectionRules rules = this.rules;
+        int written = 0;
+
+        for (int i = 0, cap = pendingWrites.capacity(); i < cap; i++) {
+            LongRingQueue batch = pendingWrites.valueAt(i);
+            if (batch == null) continue;
+
+            long section = pendingWrites.keyAt(i);
+            int cx = unpackX(section) >> 4;
+            int cz = unpackZ(section) >> 4;
+            long[] positions = batch.toArray();
+
+            if (world.isChunkLoaded(cx, cz)) {
+                written += writeSection(ws, world, positions, rules);
+            } else {
+                // Unloaded since it was classified: write once it is back
+                parkWrites(ws, chunkKey(cx, cz), positions);
             }
         }
+        pendingWrites.clear();
+        return written;
     }
 
-    private boolean tryInfect(Block b) {
-        Material type = b.getType();
-
-        // Skip AIR (as requested)
-        if (!config.isInfectAir() && type == Material.AIR) return false;
+    /**
+     * The target comes from each block's current type, which also catches blocks that
+     * changed since a worker classified them from a snapshot.
+     */
+    private int writeSection(WorldSpread ws, World world, long[] positions, InfectionRules rules) {
+        int written = 0;
+        for (long pos : positions) {
+            Block b = world.getBlockAt(unpackX(pos), unpackY(pos), unpackZ(pos));
+            BlockData data = rules.targetData(b.getType());
+            if (data == null) continue;
 
-        // Already infected
-        if (type == config.getInfectionMaterial()) return false;
+            try {
+                b.setBlockData(data, false);
+                written++;
+            } catch (Throwable ignored) {
+                // Bedrock, barriers, etc.
+            }
+        }
 
-        // Skip containers
-        if (config.isSkipContainers()) {
-            BlockState st = b.getState(false);
-            if (st instanceof Container) return false;
+        if (written > 0) {
+            markInfected(ws.worldId, unpackX(positions[0]) >> 4, unpackZ(positions[0]) >> 4);
+            invalidateSnapshot(ws, chunkKeyOf(positions[0]));
         }
+        return written;
+    }
 
-        try {
-            b.setType(config.getInfectionMaterial(), false);
-            return true;
-        } catch (Throwable ignored) {
-            // Bedrock, barriers, etc.
-            return false;
+    private WorldSpread spread(World world) {
+        WorldSpread ws = worlds.get(world.getUID());
+        if (ws == null) {
+            ws = new WorldSpread(world);
+            worlds.put(world.getUID(), ws);
         }
+        return ws;
     }
 
-    private void enqueue(Block b) {
-        World w = b.getWorld();
-        if (w == null) return;
+    private void enqueue(WorldSpread ws, int x, int y, int z) {
+        // Outside every seed zone: never queued, never marked visited
+        if (ws.zones != null && !ws.inBounds(x, y, z)) return;
+        enqueueInBounds(ws, x, y, z);
+    }
 
-        BlockKey key = new BlockKey(w.getUID(), b.getX(), b.getY(), b.getZ());
-        if (!seen.add(key)) return;
+    private void enqueueInBounds(WorldSpread ws, int x, int y, int z) {
+        long ck = chunkKey(x >> 4, z >> 4);
+        ChunkWork work = ws.chunks.get(ck);
+        if (work == null) {
+            // Settled chunk: the wave has already passed it
+            if (ws.doneChunks.contains(ck)) return;
 
-        frontier.addLast(key);
+            work = new ChunkWork(ws.sectionCount);
+            ws.chunks.put(ck, work);
+        }
+        if (!work.markVisited((y - ws.minY) >> 4, x, y, z)) return;
 
-        ChunkKey ck = new ChunkKey(w.getUID(), b.getX() >> 4, b.getZ() >> 4);
-        chunkFrontierCount.merge(ck, 1, Integer::sum);
+        ws.frontier.addLast(pack(x, y, z));
 
         // cancel pending unload because work exists again
-        unloadAfterMs.remove(ck);
+        if (work.queued++ == 0 && !unloadAfterMs.isEmpty()) {
+            unloadAfterMs.remove(new ChunkKey(ws.worldId, x >> 4, z >> 4));
+        }
     }
 
-    private void decrementFrontierCount(BlockKey key) {
-        ChunkKey ck = new ChunkKey(key.worldId, key.x >> 4, key.z >> 4);
-        Integer cur = chunkFrontierCount.get(ck);
-        if (cur == null) return;
+    private void decrementFrontierCount(WorldSpread ws, long pos) {
+        long ck = chunkKeyOf(pos);
+        ChunkWork work = ws.chunks.get(ck);
+        if (work == null) return;
+
+        if (--work.queued <= 0) {
+            // Nothing queued, parked or out with the workers: drop the bitmaps. Only a fully
+            // visited chunk collapses to a done marker; one that zone borders, limited
+            // directions or immune blocks left partly visited stays open, so a later arrival
+            // from a neighbour still reaches the rest of it
+            ws.chunks.remove(ck);
+            if (work.isFull()) ws.doneChunks.add(ck);
+            invalidateSnapshot(ws, ck);
+            ChunkKey key = new ChunkKey(ws.worldId, unpackX(pos) >> 4, unpackZ(pos) >> 4);
+            if (pluginLoadedChunks.contains(key)) {
+                unloadAfterMs.put(key, System.currentTimeMillis() + config.getUnloadDelayMs());
+            }
+        }
+    }
 
-        int next = cur - 1;
-        if (next <= 0) {
-            chunkFrontierCount.remove(ck);
-            if (pluginLoadedChunks.contains(ck)) {
-                unloadAfterMs.put(ck, System.currentTimeMillis() + config.getUnloadDelayMs());
+    /* ===============================================================
+       ASYNC CHUNK LOADING
+       =============================================================== */
+
+    /**
+     * Hold a frontier entry whose chunk is not loaded. It stays counted in its chunk's
+     * queued work, so the chunk is neither marked done nor scheduled for unload.
+     */
+    private void park(WorldSpread ws, long pos) {
+        long ck = chunkKeyOf(pos);
+        ParkedChunk parked = ws.parked.get(ck);
+        if (parked == null) {
+            parked = new ParkedChunk();
+            ws.parked.put(ck, parked);
+            ws.loadRequests.addLast(ck);
+        }
+        parked.positions.addLast(pos);
+        ws.parkedCount++;
+    }
+
+    /**
+     * Hold conversions whose chunk unloaded before they were written. They load through the
+     * same capped requests as parked frontier entries.
+     */
+    private void parkWrites(WorldSpread ws, long ck, long[] positions) {
+        LongRingQueue writes = ws.parkedWrites.get(ck);
+        if (writes == null) {
+            writes = new LongRingQueue();
+            ws.parkedWrites.put(ck, writes);
+            if (!ws.parked.containsKey(ck)) ws.loadRequests.addLast(ck);
+        }
+        for (long pos : positions) writes.addLast(pos);
+        ws.parkedWriteCount += positions.length;
+    }
+
+    /**
+     * Request parked chunks with Paper's async loader, at most
+     * {@code infection.maxChunkLoads} in flight. Past the cap the wavefront just waits.
+     */
+    private void requestParkedChunks() {
+        int cap = config.getMaxChunkLoads();
+
+        for (WorldSpread ws : worlds.values()) {
+            if (chunkLoadsInFlight >= cap) return;
+            if (ws.loadRequests.isEmpty()) continue;
+
+            World world = Bukkit.getWorld(ws.worldId);
+            if (world == null) continue;
+
+            while (chunkLoadsInFlight < cap && !ws.loadRequests.isEmpty()) {
+                long ck = ws.loadRequests.pollFirst();
+                if (!ws.parked.containsKey(ck) && !ws.parkedWrites.containsKey(ck)) continue;
+
+                int cx = (int) ck;
+                int cz = (int) (ck >> 32);
+
+                if (world.isChunkLoaded(cx, cz)) {
+                    resumeParked(ws, world, ck, true);
+                    continue;
+                }
+
+                chunkLoadsInFlight++;
+                // Paper completes the future on the main thread
+                world.getChunkAtAsync(cx, cz, true).whenComplete((chunk, error) -> {
+                    chunkLoadsInFlight--;
+
+                    WorldSpread current = worlds.get(ws.worldId);
+                    if (current != ws) return; // world unloaded or service shut down
+
+                    if (error != null) {
+                        plugin.getLogger().warning("[Infection] Chunk load failed at " + cx + "," + cz + ": " + error.getMessage());
+                    }
+                    if (chunk != null) pluginLoadedChunks.add(new ChunkKey(ws.worldId, cx, cz));
+                    resumeParked(ws, world, ck, chunk != null);
+                });
+            }
+        }
+    }
+
+    /**
+     * Move a chunk's parked entries back to the frontier and write its parked conversions,
+     * or drop both if the load failed.
+     */
+    private void resumeParked(WorldSpread ws, World world, long ck, boolean loaded) {
+        LongRingQueue writes = ws.parkedWrites.remove(ck);
+        if (writes != null) {
+            ws.parkedWriteCount -= writes.size();
+            if (loaded) writeSection(ws, world, writes.toArray(), rules);
+
+            // A write-only load is done with its chunk right away
+            ChunkWork work = ws.chunks.get(ck);
+            ChunkKey key = new ChunkKey(ws.worldId, (int) ck, (int) (ck >> 32));
+            if ((work == null || work.queued == 0) && pluginLoadedChunks.contains(key)) {
+                unloadAfterMs.put(key, System.currentTimeMillis() + config.getUnloadDelayMs());
+            }
+        }
+
+        // Reloaded: anything may have changed while it was out
+        invalidateSnapshot(ws, ck);
+
+        ParkedChunk parked = ws.parked.remove(ck);
+        if (parked == null) return;
+
+        ws.parkedCount -= parked.positions.size();
+        while (!parked.positions.isEmpty()) {
+            long pos = parked.positions.pollFirst();
+            if (loaded) {
+                ws.frontier.addLast(pos);
+            } else {
+                decrementFrontierCount(ws, pos);
+            }
+        }
+    }
+
+    /* ===============================================================
+       JOURNAL (resume across restarts)
+       =============================================================== */
+
+    /**
+     * Restore the state saved by the previous run. Call once, before the tasks start.
+     */
+    public void loadJournal() {
+        if (!config.isJournalEnabled()) return;
+
+        int restored = 0;
+        for (InfectionJournal.WorldState st : journal.read()) {
+            World world = Bukkit.getWorld(st.worldId());
+            if (world == null) {
+                unresolvedJournal.add(st);
+                continue;
+            }
+            restoreWorld(spread(world), st);
+            restored += st.frontier().length;
+        }
+
+        if (restored > 0 || !infectedChunks.isEmpty()) {
+            plugin.getLogger().info("[Infection] Resumed " + restored + " frontier blocks, "
+                    + infectedChunks.size() + " infected chunks from infection.journal.");
+        }
+    }
+
+    private void restoreWorld(WorldSpread ws, InfectionJournal.WorldState st) {
+        if (st.zones() != null) {
+            List<InfectionZone> zones = new ArrayList<>();
+            for (String spec : st.zones()) {
+                try {
+                    zones.add(InfectionZone.parse(spec));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[Infection] Ignoring zone " + spec + " from infection.journal: " + e.getMessage());
+                }
+            }
+            ws.zones = zones.toArray(new InfectionZone[0]);
+        }
+
+        for (long ck : st.infectedChunks()) {
+            markInfected(ws.worldId, (int) ck, (int) (ck >> 32));
+        }
+        // Done markers only matter while the wave that set them is still running
+        if (st.frontier().length > 0) {
+            for (long ck : st.doneChunks()) ws.doneChunks.add(ck);
+        }
+
+        long[] keys = st.activeChunks();
+        for (int i = 0; i < keys.length; i++) {
+            ChunkWork work = new ChunkWork(ws.sectionCount);
+            long[][] saved = st.activeSections()[i];
+            System.arraycopy(saved, 0, work.sections, 0, Math.min(saved.length, work.sections.length));
+            ws.chunks.put(keys[i], work);
+        }
+
+        for (long pos : st.frontier()) {
+            long ck = chunkKeyOf(pos);
+            ChunkWork work = ws.chunks.get(ck);
+            if (work == null) {
+                work = new ChunkWork(ws.sectionCount);
+                ws.chunks.put(ck, work);
+            }
+            work.markVisited((unpackY(pos) - ws.minY) >> 4, unpackX(pos), unpackY(pos), unpackZ(pos));
+            ws.frontier.addLast(pos);
+            work.queued++;
+        }
+
+        // A chunk without queued entries has settled (done only if fully visited)
+        for (long ck : keys) {
+            ChunkWork work = ws.chunks.get(ck);
+            if (work != null && work.queued == 0) {
+                ws.chunks.remove(ck);
+                if (work.isFull() && !ws.isIdle()) ws.doneChunks.add(ck);
             }
-        } else {
-            chunkFrontierCount.put(ck, next);
         }
     }
 
-    private void ensureChunkLoaded(World world, int cx, int cz) {
-        ChunkKey ck = new ChunkKey(world.getUID(), cx, cz);
+    private void ensureJournalTaskRunning() {
+        if (journalTask != null) return;
+
+        long period = config.getJournalIntervalSeconds() * 20L;
+        journalTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            if (!config.isJournalEnabled() || !journalDirty) return;
+            if (!journalWriting.compareAndSet(false, true)) return; // previous write still running
+
+            // Copy on the main thread, encode + write off it
+            long seq = ++journalSeq;
+            List<InfectionJournal.WorldState> snapshot = captureJournal();
+            journalDirty = false;
+
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                try {
+                    journal.write(seq, snapshot);
+                } finally {
+                    journalWriting.set(false);
+                }
+            });
+        }, period, period);
+    }
+
+    private List<InfectionJournal.WorldState> captureJournal() {
+        Map<UUID, List<ChunkKey>> infectedByWorld = new HashMap<>();
+        for (ChunkKey ck : infectedChunks) {
+            infectedByWorld.computeIfAbsent(ck.worldId, id -> new ArrayList<>()).add(ck);
+        }
+
+        List<InfectionJournal.WorldState> out = new ArrayList<>(unresolvedJournal);
+
+        for (WorldSpread ws : worlds.values()) {
+            out.add(captureWorld(ws.worldId, ws, infectedByWorld.remove(ws.worldId)));
+        }
+        for (Map.Entry<UUID, List<ChunkKey>> e : infectedByWorld.entrySet()) {
+            out.add(captureWorld(e.getKey(), null, e.getValue()));
+        }
+        return out;
+    }
+
+    private static InfectionJournal.WorldState captureWorld(UUID worldId, WorldSpread ws, List<ChunkKey> infected) {
+        long[] infectedKeys = new long[infected == null ? 0 : infected.size()];
+        for (int i = 0; i < infectedKeys.length; i++) {
+            ChunkKey ck = infected.get(i);
+            infectedKeys[i] = chunkKey(ck.chunkX, ck.chunkZ);
+        }
+
+        if (ws == null) {
+            return new InfectionJournal.WorldState(worldId, infectedKeys, new long[0],
+                    new long[0], new long[0][][], new long[0], null);
+        }
+
+        long[] activeKeys = new long[ws.chunks.size()];
+        long[][][] activeSections = new long[activeKeys.length][][];
+        int n = 0;
+        for (int i = 0, cap = ws.chunks.capacity(); i < cap; i++) {
+            ChunkWork work = ws.chunks.valueAt(i);
+            if (work == null) continue;
+
+            activeKeys[n] = ws.chunks.keyAt(i);
+            activeSections[n] = work.journalCopy();
+            n++;
+        }
 
-        if (!world.isChunkLoaded(cx, cz)) {
-            world.getChunkAt(cx, cz).load(true);
-            pluginLoadedChunks.add(ck);
+        // Parked and classifying entries are saved as plain frontier; they re-park or
+        // are classified again on resume. They left the queue earlier, so they go first.
+        // Conversions still waiting for their chunk are saved as frontier too, so they are
+        // converted again on resume instead of lost
+        long[] frontier = new long[ws.frontier.size() + ws.parkedCount + ws.classifyingCount + ws.parkedWriteCount];
+        int f = 0;
+        for (int i = 0, cap = ws.parkedWrites.capacity(); i < cap; i++) {
+            LongRingQueue writes = ws.parkedWrites.valueAt(i);
+            if (writes == null) continue;
+            long[] w = writes.toArray();
+            System.arraycopy(w, 0, frontier, f, w.length);
+            f += w.length;
+        }
+        for (long[] batch : ws.classifying) {
+            System.arraycopy(batch, 0, frontier, f, batch.length);
+            f += batch.length;
         }
+        for (int i = 0, cap = ws.parked.capacity(); i < cap; i++) {
+            ParkedChunk parked = ws.parked.valueAt(i);
+            if (parked == null) continue;
+            long[] p = parked.positions.toArray();
+            System.arraycopy(p, 0, frontier, f, p.length);
+            f += p.length;
+        }
+        long[] queued = ws.frontier.toArray();
+        System.arraycopy(queued, 0, frontier, f, queued.length);
+
+        String[] zones = null;
+        if (ws.zones != null) {
+            zones = new String[ws.zones.length];
+            for (int i = 0; i < zones.length; i++) zones[i] = ws.zones[i].toString();
+        }
+
+        return new InfectionJournal.WorldState(worldId, infectedKeys, ws.doneChunks.toArray(),
+                activeKeys, activeSections, frontier, zones);
     }
 
     private void runUnloadHousekeeping() {
@@ -305,7 +981,9 @@ public final class InfectionService {
             if (now < when) continue;
 
             // new work appeared
-            if (chunkFrontierCount.containsKey(ck)) {
+            WorldSpread ws = worlds.get(ck.worldId);
+            ChunkWork work = ws == null ? null : ws.chunks.get(chunkKey(ck.chunkX, ck.chunkZ));
+            if (work != null && work.queued > 0) {
                 it.remove();
                 continue;
             }
@@ -341,9 +1019,131 @@ public final class InfectionService {
         }
     }
 
-    private static final class IntHolder {
-        int value;
-        IntHolder(int v) { value = v; }
+    private static final class WorldSpread {
+        final UUID worldId;
+        final int minY;
+        final int maxY;
+        final int sectionCount;
+        final LongRingQueue frontier = new LongRingQueue();
+
+        // Chunks with queued work (visited bitmaps + queued count, for unloading)
+        final LongObjectMap<ChunkWork> chunks = new LongObjectMap<>();
+
+        // Fully visited chunks whose queue drained: settled, no per-block state kept.
+        // Cleared once the world goes idle
+        final LongHashSet doneChunks = new LongHashSet();
+
+        // Frontier entries waiting for their chunk to load, and chunks still to request
+        final LongObjectMap<ParkedChunk> parked = new LongObjectMap<>();
+        final LongRingQueue loadRequests = new LongRingQueue();
+        int parkedCount;
+
+        // Conversions whose chunk unloaded before they were written, loaded with the above
+        final LongObjectMap<LongRingQueue> parkedWrites = new LongObjectMap<>();
+        int parkedWriteCount;
+
+        // Candidate batches out with the classifier workers (not yet expanded)
+        final List<long[]> classifying = new ArrayList<>();
+        int classifyingCount;
+
+        // Classifier snapshots of the chunks the batches in flight touch
+        final LongObjectMap<SharedSnapshot> snapshots = new LongObjectMap<>();
+
+        // Spread limit: union of the seed zones, null = unbounded
+        InfectionZone[] zones;
+
+        WorldSpread(World world) {
+            this.worldId = world.getUID();
+            this.minY = world.getMinHeight();
+            this.maxY = world.getMaxHeight() - 1;
+            this.sectionCount = Math.max(1, (world.getMaxHeight() - minY + 15) >> 4);
+        }
+
+        /**
+         * Nothing queued, parked or out with the workers.
+         */
+        boolean isIdle() {
+            return frontier.isEmpty() && parkedCount == 0 && classifyingCount == 0;
+        }
+
+        boolean inBounds(int x, int y, int z) {
+            return InfectionZone.containsAny(zones, x, y, z);
+        }
+    }
+
+    private static final class SharedSnapshot {
+        ChunkSnapshot snapshot; // null once the chunk changed
+        int batches;            // batches in flight that touch the chunk
+    }
+
+    private static final class ParkedChunk {
+        final LongRingQueue positions = new LongRingQueue();
+    }
+
+    /**
+     * Visited state of one chunk in progress: one 16x16x16 bitmap (64 longs = 512 bytes)
+     * per section, allocated on first visit.
+     */
+    private static final class ChunkWork {
+        final long[][] sections;
+        int queued;
+
+        // Journal: section copies handed out by the last capture, and sections changed since
+        private long[][] journalCopy;
+        private final BitSet journalDirty;
+
+        ChunkWork(int sectionCount) {
+            this.sections = new long[sectionCount][];
+            this.journalDirty = new BitSet(sectionCount);
+        }
+
+        /**
+         * Copy of the bitmaps for a journal snapshot. Sections unchanged since the last
+         * capture share that capture's copy (snapshots never modify them).
+         */
+        long[][] journalCopy() {
+            long[][] copy = new long[sections.length][];
+            for (int s = 0; s < copy.length; s++) {
+                if (sections[s] == null) continue;
+                copy[s] = journalCopy != null && journalCopy[s] != null && !journalDirty.get(s)
+                        ? journalCopy[s]
+                        : sections[s].clone();
+            }
+            journalDirty.clear();
+            journalCopy = copy;
+            return copy;
+        }
+
+        /**
+         * True if every block of every section was visited.
+         */
+        boolean isFull() {
+            for (long[] bits : sections) {
+                if (bits == null) return false;
+                for (long word : bits) {
+                    if (word != -1L) return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns false if the block was already visited.
+         */
+        boolean markVisited(int section, int x, int y, int z) {
+            long[] bits = sections[section];
+            if (bits == null) {
+                bits = new long[64];
+                sections[section] = bits;
+            }
+
+            int i = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+            long mask = 1L << i;
+            if ((bits[i >>> 6] & mask) != 0) return false;
+            bits[i >>> 6] |= mask;
+            journalDirty.set(section);
+            return true;
+        }
     }
 
     public static final class ChunkKey {
@@ -372,32 +1172,4 @@ public final class InfectionService {
             return r;
         }
     }
-
-    public static final class BlockKey {
-        public final UUID worldId;
-        public final int x, y, z;
-
-        public BlockKey(UUID worldId, int x, int y, int z) {
-            this.worldId = worldId;
-            this.x = x;
-            this.y = y;
-            this.z = z;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof BlockKey other)) return false;
-            return x == other.x && y == other.y && z == other.z && worldId.equals(other.worldId);
-        }
-
-        @Override
-        public int hashCode() {
-            int r = worldId.hashCode();
-            r = 31 * r + x;
-            r = 31 * r + y;
-            r = 31 * r + z;
-            return r;
-        }
-    }
 }
@@ -0,0 +1,306 @@
+package com.entitycore.modules.infection;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Area a seeded infection may spread in. Tested with integer math for every neighbour
+ * before it is enqueued, so nothing outside ever enters the frontier or the visited
+ * bitmaps.
+ *
+ * Seed items carry bounds relative to the clicked block or by region name:
+ *   radius:R                    sphere of radius R around the seed
+ *   cuboid:X1,Y1,Z1,X2,Y2,Z2    absolute corners (inclusive)
+ *   region:ID                   WorldGuard cuboid or polygon region in the seed's world
+ *
+ * Seeding resolves them into absolute shapes, which is also what the journal stores:
+ *   sphere:CX,CY,CZ,R
+ *   cuboid:X1,Y1,Z1,X2,Y2,Z2
+ *   polygon:MINY,MAXY,X1,Z1,X2,Z2,...
+ *
+ * A region is copied when seeded; later edits to it do not move a running infection.
+ */
+final class InfectionZone {
+
+    private static final int SPHERE = 0;
+    private static final int CUBOID = 1;
+    private static final int POLYGON = 2;
+
+    static final int MAX_RADIUS = 4096;
+
+    private final int shape;
+
+    // Bounding box (every shape), checked first
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+
+    // Sphere
+    private final int cx, cy, cz, radius;
+    private final long radiusSq;
+
+    // Polygon outline (x/z pairs), WorldGuard containment rules
+    private final int[] px;
+    private final int[] pz;
+
+    private InfectionZone(int shape, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                          int cx, int cy, int cz, int radius, int[] px, int[] pz) {
+        this.shape = shape;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.cx = cx;
+        this.cy = cy;
+        this.cz = cz;
+        this.radius = radius;
+        this.radiusSq = (long) radius * radius;
+        this.px = px;
+        this.pz = pz;
+    }
+
+    static InfectionZone sphere(int cx, int cy, int cz, int radius) {
+        return new InfectionZone(SPHERE, cx - radius, cy - radius, cz - radius,
+                cx + radius, cy + radius, cz + radius,
+                cx, cy, cz, radius, null, null);
+    }
+
+    static InfectionZone cuboid(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new InfectionZone(CUBOID, Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+                Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2),
+                0, 0, 0, 0, null, null);
+    }
+
+    static InfectionZone polygon(int minY, int maxY, int[] px, int[] pz) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < px.length; i++) {
+            minX = Math.min(minX, px[i]);
+            maxX = Math.max(maxX, px[i]);
+            minZ = Math.min(minZ, pz[i]);
+            maxZ = Math.max(maxZ, pz[i]);
+        }
+        return new InfectionZone(POLYGON, minX, Math.min(minY, maxY), minZ, maxX, Math.max(minY, maxY), maxZ,
+                0, 0, 0, 0, px, pz);
+    }
+
+    boolean contains(int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return false;
+
+        return switch (shape) {
+            case SPHERE -> {
+                long dx = x - cx, dy = y - cy, dz = z - cz;
+                yield dx * dx + dy * dy + dz * dz <= radiusSq;
+            }
+            case POLYGON -> polygonContains(x, z);
+            default -> true;
+        };
+    }
+
+    /**
+     * True if any of {@code zones} contains the block.
+     */
+    static boolean containsAny(InfectionZone[] zones, int x, int y, int z) {
+        for (InfectionZone zone : zones) {
+            if (zone.contains(x, y, z)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Even-odd test with edges and corners inside, as ProtectedPolygonalRegion#contains.
+     */
+    private boolean polygonContains(int x, int z) {
+        boolean inside = false;
+        int n = px.length;
+        int xOld = px[n - 1];
+        int zOld = pz[n - 1];
+
+        for (int i = 0; i < n; i++) {
+            int xNew = px[i];
+            int zNew = pz[i];
+            if (xNew == x && zNew == z) return true;
+
+            int x1, z1, x2, z2;
+            if (xNew > xOld) {
+                x1 = xOld; z1 = zOld; x2 = xNew; z2 = zNew;
+            } else {
+                x1 = xNew; z1 = zNew; x2 = xOld; z2 = zOld;
+            }
+
+            if (x1 <= x && x <= x2) {
+                long cross = ((long) z - z1) * ((long) x2 - x1) - ((long) z2 - z1) * ((long) x - x1);
+                if (cross == 0) {
+                    if ((z1 <= z) == (z <= z2)) return true; // on the edge
+                } else if (cross < 0 && x1 != x) {
+                    inside = !inside;
+                }
+            }
+            xOld = xNew;
+            zOld = zNew;
+        }
+        return inside;
+    }
+
+    /* ===============================================================
+       SPECS
+       =============================================================== */
+
+    /**
+     * Check seed bounds syntax without resolving them (used when handing out a seed).
+     */
+    static void validateBounds(String bounds) {
+        String[] parts = split(bounds);
+        switch (parts[0]) {
+            case "radius" -> radius(parts[1]);
+            case "cuboid" -> ints(parts[1], 6);
+            case "region" -> {
+                if (parts[1].isBlank()) throw new IllegalArgumentException("Missing region id.");
+            }
+            default -> throw new IllegalArgumentException("Unknown bounds type: " + parts[0]);
+        }
+    }
+
+    /**
+     * Resolve seed bounds against the clicked block.
+     *
+     * @throws IllegalArgumentException with a player-readable reason
+     */
+    static InfectionZone resolve(String bounds, Block seed) {
+        String[] parts = split(bounds);
+        return switch (parts[0]) {
+            case "radius" -> sphere(seed.getX(), seed.getY(), seed.getZ(), radius(parts[1]));
+            case "cuboid" -> {
+                int[] v = ints(parts[1], 6);
+                yield cuboid(v[0], v[1], v[2], v[3], v[4], v[5]);
+            }
+            case "region" -> {
+                if (!Bukkit.getPluginManager().isPluginEnabled("WorldGuard")) {
+                    throw new IllegalArgumentException("WorldGuard is not installed.");
+                }
+                yield Regions.lookup(seed.getWorld(), parts[1]);
+            }
+            default -> throw new IllegalArgumentException("Unknown bounds type: " + parts[0]);
+        };
+    }
+
+    /**
+     * Parse a resolved shape as written by {@link #toString()}.
+     */
+    static InfectionZone parse(String spec) {
+        String[] parts = split(spec);
+        switch (parts[0]) {
+            case "sphere" -> {
+                int[] v = ints(parts[1], 4);
+                return sphere(v[0], v[1], v[2], v[3]);
+            }
+            case "cuboid" -> {
+                int[] v = ints(parts[1], 6);
+                return cuboid(v[0], v[1], v[2], v[3], v[4], v[5]);
+            }
+            case "polygon" -> {
+                int[] v = ints(parts[1], -1);
+                if (v.length < 8 || (v.length & 1) != 0) throw new IllegalArgumentException("Bad polygon: " + spec);
+                int n = (v.length - 2) / 2;
+                int[] px = new int[n];
+                int[] pz = new int[n];
+                for (int i = 0; i < n; i++) {
+                    px[i] = v[2 + i * 2];
+                    pz[i] = v[3 + i * 2];
+                }
+                return polygon(v[0], v[1], px, pz);
+            }
+            default -> throw new IllegalArgumentException("Unknown zone: " + spec);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return switch (shape) {
+            case SPHERE -> "sphere:" + cx + "," + cy + "," + cz + "," + radius;
+            case CUBOID -> "cuboid:" + minX + "," + minY + "," + minZ + "," + maxX + "," + maxY + "," + maxZ;
+            default -> {
+                StringBuilder sb = new StringBuilder("polygon:").append(minY).append(',').append(maxY);
+                for (int i = 0; i < px.length; i++) sb.append(',').append(px[i]).append(',').append(pz[i]);
+                yield sb.toString();
+            }
+        };
+    }
+
+    private static String[] split(String spec) {
+        int i = spec == null ? -1 : spec.indexOf(':');
+        if (i <= 0) throw new IllegalArgumentException("Expected type:value, got " + spec);
+        return new String[]{spec.substring(0, i).toLowerCase(Locale.ROOT), spec.substring(i + 1)};
+    }
+
+    private static int radius(String s) {
+        int r = ints(s, 1)[0];
+        if (r < 0 || r > MAX_RADIUS) throw new IllegalArgumentException("Radius must be 0.." + MAX_RADIUS + ".");
+        return r;
+    }
+
+    /**
+     * Comma separated ints; {@code count} < 0 accepts any number.
+     */
+    private static int[] ints(String s, int count) {
+        String[] tokens = s.split(",");
+        if (count >= 0 && tokens.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " numbers, got " + tokens.length + ".");
+        }
+        int[] out = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            try {
+                out[i] = Integer.parseInt(tokens[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + tokens[i].trim());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * WorldGuard access, only loaded when WorldGuard is enabled.
+     */
+    private static final class Regions {
+
+        static InfectionZone lookup(World world, String id) {
+            RegionManager manager = WorldGuard.getInstance()
+                    .getPlatform()
+                    .getRegionContainer()
+                    .get(BukkitAdapter.adapt(world));
+            ProtectedRegion region = manager == null ? null : manager.getRegion(id);
+            if (region == null) throw new IllegalArgumentException("No region '" + id + "' in " + world.getName() + ".");
+
+            BlockVector3 min = region.getMinimumPoint();
+            BlockVector3 max = region.getMaximumPoint();
+
+            if (region instanceof ProtectedCuboidRegion) {
+                return cuboid(min.x(), min.y(), min.z(), max.x(), max.y(), max.z());
+            }
+            if (region instanceof ProtectedPolygonalRegion) {
+                List<BlockVector2> points = region.getPoints();
+                int[] px = new int[points.size()];
+                int[] pz = new int[points.size()];
+                for (int i = 0; i < px.length; i++) {
+                    px[i] = points.get(i).x();
+                    pz[i] = points.get(i).z();
+                }
+                return polygon(min.y(), max.y(), px, pz);
+            }
+            throw new IllegalArgumentException("Region '" + id + "' has no bounded shape.");
+        }
+    }
+}
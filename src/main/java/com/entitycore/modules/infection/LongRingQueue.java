@@ -0,0 +1,74 @@
+package com.entitycore.modules.infection;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of primitive longs backed by a growable ring buffer (no per-element allocation).
+ * The buffer halves again once it is less than a quarter full, and drops back to the
+ * minimum when the queue drains, so a past peak wave does not keep its array alive.
+ */
+final class LongRingQueue {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] buf = new long[MIN_CAPACITY];
+    private int head;   // index of the first element
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void addLast(long v) {
+        if (size == buf.length) resize(buf.length << 1);
+        buf[(head + size) & (buf.length - 1)] = v;
+        size++;
+    }
+
+    long pollFirst() {
+        if (size == 0) throw new NoSuchElementException();
+        long v = buf[head];
+        head = (head + 1) & (buf.length - 1);
+        size--;
+
+        if (buf.length > MIN_CAPACITY) {
+            if (size == 0) {
+                buf = new long[MIN_CAPACITY];
+                head = 0;
+            } else if (size < buf.length >>> 2) {
+                resize(buf.length >>> 1);
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Copy of the elements, first to last.
+     */
+    long[] toArray() {
+        long[] out = new long[size];
+        int firstPart = Math.min(size, buf.length - head);
+        System.arraycopy(buf, head, out, 0, firstPart);
+        System.arraycopy(buf, 0, out, firstPart, size - firstPart);
+        return out;
+    }
+
+    void clear() {
+        buf = new long[MIN_CAPACITY];
+        head = 0;
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] next = new long[capacity];
+        int firstPart = Math.min(size, buf.length - head);
+        System.arraycopy(buf, head, next, 0, firstPart);
+        System.arraycopy(buf, 0, next, firstPart, size - firstPart);
+        buf = next;
+        head = 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.entitycore.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs (no boxing, 8 bytes per slot).
+ *
+ * Long.MIN_VALUE marks an empty slot. As a packed block position it would be
+ * x = -33554432, and as a chunk key chunk z = -2147483648; both lie outside the world
+ * border, so it never collides with a real key. Not thread-safe.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expected) {
+        int cap = MIN_CAPACITY;
+        while (cap * 3 / 4 < expected) cap <<= 1;
+        this.keys = newTable(cap);
+        this.mask = cap - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns false if the key was already present.
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) throw new IllegalArgumentException("reserved key");
+
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) return false;
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        if (++size > keys.length * 3 / 4) rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Returns false if the key was not present.
+     */
+    public boolean remove(long key) {
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) {
+                shiftDown(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Copy of the keys, in table order.
+     */
+    public long[] toArray() {
+        long[] out = new long[size];
+        int n = 0;
+        for (long k : keys) {
+            if (k != EMPTY) out[n++] = k;
+        }
+        return out;
+    }
+
+    public void clear() {
+        keys = newTable(MIN_CAPACITY);
+        mask = MIN_CAPACITY - 1;
+        size = 0;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftDown(int slot) {
+        int last = slot;
+        int cur = (slot + 1) & mask;
+        while (keys[cur] != EMPTY) {
+            int home = mix(keys[cur]) & mask;
+            boolean move = last <= cur
+                    ? (home <= last || home > cur)
+                    : (home <= last && home > cur);
+            if (move) {
+                keys[last] = keys[cur];
+                last = cur;
+            }
+            cur = (cur + 1) & mask;
+        }
+        keys[last] = EMPTY;
+    }
+
+    private void rehash(int newCap) {
+        long[] old = keys;
+        keys = newTable(newCap);
+        mask = newCap - 1;
+
+        for (long k : old) {
+            if (k == EMPTY) continue;
+            int i = mix(k) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = k;
+        }
+    }
+
+    private static long[] newTable(int cap) {
+        long[] t = new long[cap];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,163 @@
+package com.entitycore.util;
+
+import java.util.Arrays;
+
+/**
+ * Small open-addressing map keyed by primitive longs (no boxing).
+ *
+ * Iteration is slot based: walk 0..capacity()-1 and skip slots where
+ * valueAt(i) is null. Values must never be null. Not thread-safe.
+ */
+public final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expected) {
+        int cap = MIN_CAPACITY;
+        while (cap * 3 / 4 < expected) cap <<= 1;
+        this.keys = new long[cap];
+        this.values = new Object[cap];
+        this.mask = cap - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) return (V) v;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Current slot of {@code key}, or -1. Slots move on remove and rehash, so callers
+     * holding a position across changes should hold the key and look the slot up again.
+     */
+    public int indexOf(long key) {
+        int i = mix(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("null value");
+
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if (++size > values.length * 3 / 4) rehash(values.length << 1);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                shiftDown(i);
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftDown(int slot) {
+        int last = slot;
+        int cur = (slot + 1) & mask;
+        while (values[cur] != null) {
+            int home = mix(keys[cur]) & mask;
+            boolean move = last <= cur
+                    ? (home <= last || home > cur)
+                    : (home <= last && home > cur);
+            if (move) {
+                keys[last] = keys[cur];
+                values[last] = values[cur];
+                last = cur;
+            }
+            cur = (cur + 1) & mask;
+        }
+        values[last] = null;
+    }
+
+    private void rehash(int newCap) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[newCap];
+        values = new Object[newCap];
+        mask = newCap - 1;
+
+        for (int s = 0; s < oldValues.length; s++) {
+            Object v = oldValues[s];
+            if (v == null) continue;
+            int i = mix(oldKeys[s]) & mask;
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[s];
+            values[i] = v;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,40 @@
+package com.entitycore.util;
+
+/**
+ * Block and chunk positions packed into longs, for primitive-keyed maps.
+ *
+ * Block positions use the vanilla BlockPos#asLong layout:
+ *   x: 26 bits | z: 26 bits | y: 12 bits
+ * Chunk keys use the Chunk#getChunkKey layout (z high, x low).
+ */
+public final class PackedPos {
+
+    private PackedPos() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38
+                | ((long) z & 0x3FFFFFFL) << 12
+                | ((long) y & 0xFFFL);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    public static long chunkKeyOf(long packedPos) {
+        return chunkKey(unpackX(packedPos) >> 4, unpackZ(packedPos) >> 4);
+    }
+}